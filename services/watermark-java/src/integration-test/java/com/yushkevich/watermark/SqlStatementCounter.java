@@ -0,0 +1,30 @@
+package com.yushkevich.watermark;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts SQL statements prepared by Hibernate(registered as {@code hibernate.session_factory.statement_inspector}).
+ * Statements of background watermark job threads are ignored, so only statements of requests are counted.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final AtomicLong COUNT = new AtomicLong();
+
+    @Override
+    public String inspect(String sql) {
+        if (!Thread.currentThread().getName().startsWith("watermark-job")) {
+            COUNT.incrementAndGet();
+        }
+        return sql;
+    }
+
+    public static void reset() {
+        COUNT.set(0);
+    }
+
+    public static long count() {
+        return COUNT.get();
+    }
+}
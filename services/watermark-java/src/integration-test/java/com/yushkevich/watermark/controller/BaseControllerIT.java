@@ -33,6 +33,10 @@ public abstract class BaseControllerIT {
     protected String publicationBase;
     @Value("http://localhost:${local.server.port}/api/v1/watermark")
     protected String watermarkBase;
+    @Value("http://localhost:${local.server.port}/api/v2/watermark")
+    protected String asyncWatermarkBase;
+    @Value("http://localhost:${local.server.port}")
+    protected String managementBase;
 
     protected PublicationDTO book;
     protected PublicationDTO journal;
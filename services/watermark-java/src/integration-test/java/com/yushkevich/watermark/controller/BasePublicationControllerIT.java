@@ -1,16 +1,32 @@
 package com.yushkevich.watermark.controller;
 
+import com.yushkevich.watermark.SqlStatementCounter;
+import com.yushkevich.watermark.client.engine.StampingWatermarkEngine;
+import com.yushkevich.watermark.client.engine.WatermarkRequest;
 import com.yushkevich.watermark.domain.Content;
 import com.yushkevich.watermark.dto.PublicationDTO;
 import com.yushkevich.watermark.dto.PublicationRequestDTO;
+import com.yushkevich.watermark.exporter.PublicationExportFormat;
 import com.jayway.restassured.RestAssured;
+import com.jayway.restassured.config.DecoderConfig;
+import com.jayway.restassured.path.json.JsonPath;
 import org.hamcrest.Matcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static com.jayway.restassured.http.ContentType.JSON;
+import static com.yushkevich.watermark.domain.Content.BOOK;
+import static com.yushkevich.watermark.domain.Content.JOURNAL;
+import static java.util.Objects.isNull;
 import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
 
 /**
  * Base class for controller PublicationController Integration Tests.
@@ -19,6 +35,9 @@ import static org.hamcrest.Matchers.*;
 
 public abstract class BasePublicationControllerIT extends BaseControllerIT {
 
+    @Autowired
+    private StampingWatermarkEngine stampingWatermarkEngine;
+
     protected void testCreatePublication_fail(Content content, List<String> errorFields) throws Exception {
         RestAssured.given()
             .contentType(JSON)
@@ -39,6 +58,172 @@ public abstract class BasePublicationControllerIT extends BaseControllerIT {
             .body("errors.field", containsInAnyOrder(errorFields.toArray()));
     }
 
+    protected void testImportPublications(String contentType, String body, int imported, List<Integer> rejectedLines)
+            throws Exception {
+        final long booksBefore = countPublications(BOOK);
+        final long journalsBefore = countPublications(JOURNAL);
+
+        RestAssured.given()
+            .contentType(contentType)
+            .body(body.getBytes(StandardCharsets.UTF_8))
+        .when()
+            .post(publicationBase + "/import").prettyPeek()
+        .then()
+            .statusCode(HttpStatus.OK.value())
+            .body("imported", is(imported))
+            .body("failed", is(rejectedLines.size()))
+            .body("errors.line", is(rejectedLines))
+            .body("errors.message", everyItem(notNullValue()));
+
+        assertThat(countPublications(BOOK) + countPublications(JOURNAL) - booksBefore - journalsBefore,
+                is((long) imported));
+    }
+
+    protected void testImportPublicationsStatements(int rows, int batchSize) throws Exception {
+        final StringBuilder body = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            body.append("JOURNAL,title").append(i).append(",author").append(i).append('\n');
+        }
+
+        SqlStatementCounter.reset();
+        RestAssured.given()
+            .contentType("text/csv")
+            .body(body.toString().getBytes(StandardCharsets.UTF_8))
+        .when()
+            .post(publicationBase + "/import")
+        .then()
+            .statusCode(HttpStatus.OK.value())
+            .body("imported", is(rows));
+        //one insert per batch, sequence is read at most once (pooled by 50)
+        assertThat(SqlStatementCounter.count(), lessThanOrEqualTo((long) rows / batchSize + 1));
+    }
+
+    protected void testExportPublications(PublicationDTO publicationDTO, Matcher<Object> topicMatcher) throws Exception {
+        final Content content = publicationDTO.getContent();
+        final PublicationDTO quotedPublicationDTO = PublicationDTO.builder()
+                .content(content)
+                .title("Export, \"quoted\"")
+                .author(publicationDTO.getAuthor())
+                .topic(publicationDTO.getTopic())
+                .build();
+        final Long id = createAndVerifyPublication(quotedPublicationDTO, topicMatcher);
+
+        //gzipped, as client accepts gzip by default
+        final String[] ndjsonLines = RestAssured.given()
+            .parameter("content", content.toString())
+        .when()
+            .get(publicationBase + "/export")
+        .then()
+            .statusCode(HttpStatus.OK.value())
+            .contentType(startsWith("application/x-ndjson"))
+            .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+            .extract()
+            .asString()
+            .split("\n");
+        assertThat((long) ndjsonLines.length, is(countPublications(content)));
+        final PublicationDTO exported = objectMapper.readValue(ndjsonLines[ndjsonLines.length - 1], PublicationDTO.class);
+        quotedPublicationDTO.setId(id);
+        assertThat(exported, is(quotedPublicationDTO));
+
+        final String[] csvLines = RestAssured.given()
+            .config(RestAssured.config().decoderConfig(DecoderConfig.decoderConfig().noContentDecoders()))
+            .parameter("content", content.toString())
+            .parameter("format", "CSV")
+        .when()
+            .get(publicationBase + "/export")
+        .then()
+            .statusCode(HttpStatus.OK.value())
+            .contentType(startsWith("text/csv"))
+            .header(HttpHeaders.CONTENT_ENCODING, nullValue())
+            .extract()
+            .asString()
+            .split("\n");
+        assertThat(csvLines[0], is(PublicationExportFormat.CSV_HEADER));
+        assertThat((long) csvLines.length - 1, is(countPublications(content)));
+        assertThat(csvLines[csvLines.length - 1], is(String.format("%s,%s,\"Export, \"\"quoted\"\"\",%s,%s,,", id,
+                content, publicationDTO.getAuthor(), isNull(publicationDTO.getTopic()) ? "" : publicationDTO.getTopic())));
+    }
+
+    protected void testExportAndImportPublications(PublicationDTO publicationDTO, Matcher<Object> topicMatcher)
+            throws Exception {
+        final Content content = publicationDTO.getContent();
+        createAndVerifyPublication(PublicationDTO.builder()
+                .content(content)
+                .title("Exported, \"quoted\"\nmulti-line")
+                .author(publicationDTO.getAuthor())
+                .topic(publicationDTO.getTopic())
+                .build(), topicMatcher);
+
+        for (PublicationExportFormat format : PublicationExportFormat.values()) {
+            final long exported = countPublications(content);
+            //when
+            final String body = RestAssured.given()
+                .parameter("content", content.toString())
+                .parameter("format", format.toString())
+            .when()
+                .get(publicationBase + "/export")
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .asString();
+            //then every exported publication is imported again
+            testImportPublications(format.getMediaType(), body, (int) exported, Collections.emptyList());
+        }
+    }
+
+    protected void testStoreAndGetWatermarkedDocument(PublicationDTO publicationDTO, Matcher<Object> topicMatcher)
+            throws Exception {
+        //given
+        final Content content = publicationDTO.getContent();
+        final Long id = createAndVerifyPublication(publicationDTO, topicMatcher);
+        final String document = "%PDF-1.4\nDocument of " + publicationDTO.getTitle() + "\n%%EOF";
+        //when
+        RestAssured.given()
+            .queryParam("content", content.toString())
+            .contentType("application/octet-stream")
+            .body(document.getBytes(StandardCharsets.UTF_8))
+        .when()
+            .put(publicationBase + "/" + id + "/document")
+        .then()
+            .statusCode(HttpStatus.NO_CONTENT.value());
+        //then not stamped yet
+        RestAssured.given()
+            .parameter("content", content.toString())
+        .when()
+            .get(publicationBase + "/" + id + "/document")
+        .then()
+            .statusCode(HttpStatus.NOT_FOUND.value());
+        //when
+        final String watermark = stampingWatermarkEngine.createWatermark(
+                new WatermarkRequest(id, content, Collections.singletonList(publicationDTO.getTitle())));
+        //then
+        final String stamp = "%Watermark: " + watermark + "\n";
+        final String watermarkedDocument = RestAssured.given()
+            .parameter("content", content.toString())
+        .when()
+            .get(publicationBase + "/" + id + "/document")
+        .then()
+            .statusCode(HttpStatus.OK.value())
+            .contentType("application/octet-stream")
+            .extract()
+            .asString();
+        assertThat(watermarkedDocument, is(stamp + document + "\n" + stamp));
+    }
+
+    private long countPublications(Content content) {
+        return RestAssured.given()
+            .parameter("content", content.toString())
+            .and().parameter("cursor", "")
+            .and().parameter("count", true)
+        .when()
+            .get(publicationBase + "/list")
+        .then()
+            .statusCode(HttpStatus.OK.value())
+            .extract()
+            .jsonPath()
+            .getLong("totalEntries");
+    }
+
     protected void testPublicationList_success(Content content, int numberOfItemsWithTopic) throws Exception {
         RestAssured.given()
             .parameter("content", content.toString())
@@ -55,6 +240,96 @@ public abstract class BasePublicationControllerIT extends BaseControllerIT {
             .body("entries.findAll { it.topic != null }.size()", is(numberOfItemsWithTopic));
     }
 
+    protected void testPublicationListByCursor_success(PublicationDTO publicationDTO,
+                                                       Matcher<Object> topicMatcher) throws Exception {
+        final Long id1 = createAndVerifyPublication(publicationDTO, topicMatcher);
+        final Long id2 = createAndVerifyPublication(publicationDTO, topicMatcher);
+        final Long id3 = createAndVerifyPublication(publicationDTO, topicMatcher);
+        final Set<Long> seenIds = new HashSet<>();
+        final Content content = publicationDTO.getContent();
+
+        String cursor = "";
+        Long lastId = 0L;
+        do {
+            final JsonPath page = RestAssured.given()
+                .parameter("content", content.toString())
+                .and().parameter("cursor", cursor)
+                .and().parameter("size", 2)
+            .when()
+                .get(publicationBase + "/list").prettyPeek()
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("totalEntries", nullValue())
+                .body("entries.content", everyItem(is(content.toString())))
+                .body("entries.size()", lessThanOrEqualTo(2))
+                .extract()
+                .jsonPath();
+
+            final List<Long> ids = page.getList("entries.id", Long.class);
+            assertThat(ids.get(0), greaterThan(lastId));
+            lastId = ids.get(ids.size() - 1);
+            seenIds.addAll(ids);
+            cursor = page.getString("nextCursor");
+        } while (cursor != null);
+
+        assertThat(seenIds, hasItems(id1, id2, id3));
+        assertThat(lastId, is(id3));
+
+        RestAssured.given()
+            .parameter("content", content.toString())
+            .and().parameter("cursor", "")
+            .and().parameter("count", true)
+        .when()
+            .get(publicationBase + "/list").prettyPeek()
+        .then()
+            .statusCode(HttpStatus.OK.value())
+            .body("totalEntries", is(seenIds.size()));
+    }
+
+    protected void testPublicationListByCursor_fail(Content content) throws Exception {
+        RestAssured.given()
+            .parameter("content", content.toString())
+            .and().parameter("cursor", "not a cursor")
+        .when()
+            .get(publicationBase + "/list").prettyPeek()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    protected void testPublicationListStatements(PublicationDTO publicationDTO, Matcher<Object> topicMatcher,
+                                                 int pageSize) throws Exception {
+        for (int i = 0; i < pageSize; i++) {
+            createAndVerifyPublication(publicationDTO, topicMatcher);
+        }
+        final String content = publicationDTO.getContent().toString();
+
+        //offset page: select and count
+        SqlStatementCounter.reset();
+        RestAssured.given()
+            .parameter("content", content)
+            .and().parameter("page", 0)
+            .and().parameter("size", pageSize)
+        .when()
+            .get(publicationBase + "/list")
+        .then()
+            .statusCode(HttpStatus.OK.value())
+            .body("entries.size()", is(pageSize));
+        assertThat(SqlStatementCounter.count(), is(2L));
+
+        //keyset page: select only
+        SqlStatementCounter.reset();
+        RestAssured.given()
+            .parameter("content", content)
+            .and().parameter("cursor", "")
+            .and().parameter("size", pageSize)
+        .when()
+            .get(publicationBase + "/list")
+        .then()
+            .statusCode(HttpStatus.OK.value())
+            .body("entries.size()", is(pageSize));
+        assertThat(SqlStatementCounter.count(), is(1L));
+    }
+
     protected void testFindPublication_success(PublicationDTO publicationDTO, Matcher<Object> topicMatcher) throws Exception {
         final Long id = createAndVerifyPublication(publicationDTO, topicMatcher);
 
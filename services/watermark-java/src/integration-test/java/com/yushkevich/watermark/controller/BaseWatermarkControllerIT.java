@@ -1,35 +1,70 @@
 package com.yushkevich.watermark.controller;
 
 import com.jayway.restassured.RestAssured;
+import com.yushkevich.watermark.cache.TicketCache;
 import com.yushkevich.watermark.client.WatermarkClient;
+import com.yushkevich.watermark.client.engine.WatermarkRequest;
+import com.yushkevich.watermark.domain.Book;
 import com.yushkevich.watermark.domain.Content;
 import com.yushkevich.watermark.domain.Watermark;
+import com.yushkevich.watermark.dto.BulkWatermarkRequestDTO;
 import com.yushkevich.watermark.dto.PublicationDTO;
 import com.yushkevich.watermark.dto.PublicationRequestDTO;
+import com.yushkevich.watermark.event.WatermarkStatusChangedEvent;
+import com.yushkevich.watermark.job.WatermarkJobProperties;
+import com.yushkevich.watermark.repository.WatermarkJobRepository;
 import org.hamcrest.Matcher;
 import org.junit.After;
 import org.junit.Before;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static com.jayway.restassured.http.ContentType.JSON;
+import static com.yushkevich.watermark.domain.Content.JOURNAL;
 import static com.yushkevich.watermark.domain.Watermark.Status.*;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public abstract class BaseWatermarkControllerIT extends BaseControllerIT {
 
+    /**
+     * Time to wait for a ticket to be finished: client delay plus job dispatching and collapser window.
+     */
+    private static final long WATERMARK_GENERATION_TIME = 1000L;
+
     @MockBean
     private WatermarkClient watermarkClient;
+    @Autowired
+    private TicketCache ticketCache;
+    @Autowired
+    private WatermarkJobProperties watermarkJobProperties;
+    @Autowired
+    private WatermarkJobRepository watermarkJobRepository;
+
+    private final AtomicInteger maxBatchSize = new AtomicInteger();
 
     @Before
     public void setUp() throws Exception {
         super.setUp();
+        maxBatchSize.set(0);
     }
 
     void testWatermarkPublicationAsync_success(PublicationDTO publicationDTO, Content content,
@@ -52,7 +87,7 @@ public abstract class BaseWatermarkControllerIT extends BaseControllerIT {
         Long publicationId = createAndVerifyPublication(publicationDTO, topicMatcher);
         final UUID ticketId = triggerWatermarkCreationAndVerifyTicketId(publicationId, content);
         pollAndVerifyTicketStatus(ticketId, PENDING, nullValue());
-        Thread.sleep(500L);
+        Thread.sleep(WATERMARK_GENERATION_TIME);
         pollAndVerifyTicketStatus(ticketId, SUCCESS, notNullValue());
         //when
         final PublicationDTO publicationToUpdate = PublicationDTO.builder().content(content).author("newAuthor").build();
@@ -70,8 +105,8 @@ public abstract class BaseWatermarkControllerIT extends BaseControllerIT {
         Long publicationId = createAndVerifyPublication(publicationDTO, topicMatcher);
         final UUID ticketId = triggerWatermarkCreationAndVerifyTicketId(publicationId, content);
         pollAndVerifyTicketStatus(ticketId, PENDING, nullValue());
-        Thread.sleep(500L);
-        pollAndVerifyTicketStatus(ticketId, FAILED, nullValue());
+        // job is retried up to maxAttempts times before watermark is FAILED
+        awaitAndVerifyTicketStatus(ticketId, FAILED);
         //when
         final PublicationDTO publicationToUpdate = PublicationDTO.builder().content(content).author("newAuthor").build();
         publicationToUpdate.setId(publicationId);
@@ -80,6 +115,19 @@ public abstract class BaseWatermarkControllerIT extends BaseControllerIT {
         pollAndVerifyTicketStatus(ticketId, NEW, nullValue());
     }
 
+    void testWatermarkTicketRetriedAfterFailure_success(PublicationDTO publicationDTO, Content content,
+                                                        Matcher<Object> topicMatcher) throws Exception {
+        //given
+        delayWatermarkClient(500L, 1);
+
+        Long publicationId = createAndVerifyPublication(publicationDTO, topicMatcher);
+        //when
+        final UUID ticketId = triggerWatermarkCreationAndVerifyTicketId(publicationId, content);
+        //then
+        awaitAndVerifyTicketStatus(ticketId, SUCCESS);
+        verify(watermarkClient, times(2)).createWatermarks(any());
+    }
+
     void testWatermarkTicketStatusFlow_fail_updateNotAllowed(PublicationDTO publicationDTO, Content content,
                                                              Matcher<Object> topicMatcher) throws Exception {
         //given
@@ -94,6 +142,218 @@ public abstract class BaseWatermarkControllerIT extends BaseControllerIT {
         testUpdatePublication_fail(publicationToUpdate);
     }
 
+    void testWatermarkTicketAwaitStatusChange_success(PublicationDTO publicationDTO, Content content,
+                                                      Matcher<Object> topicMatcher) throws Exception {
+        //given
+        delayWatermarkClient(500L, false);
+
+        Long publicationId = createAndVerifyPublication(publicationDTO, topicMatcher);
+        final UUID ticketId = triggerWatermarkCreationAndVerifyTicketId(publicationId, content);
+        //when
+        RestAssured.given()
+                .queryParam("status", PENDING)
+                .when()
+                .get(watermarkBase + "/{ticket_id}/await", ticketId).prettyPeek()
+                //then
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("id", is(ticketId.toString()))
+                .body("status", is(SUCCESS.toString()))
+                .body("document", notNullValue());
+    }
+
+    void testWatermarkTicketStatusEvents_success(PublicationDTO publicationDTO, Content content,
+                                                 Matcher<Object> topicMatcher) throws Exception {
+        //given
+        delayWatermarkClient(500L, false);
+
+        Long publicationId = createAndVerifyPublication(publicationDTO, topicMatcher);
+        final UUID ticketId = triggerWatermarkCreationAndVerifyTicketId(publicationId, content);
+        //when
+        final String events = RestAssured.when()
+                .get(watermarkBase + "/{ticket_id}/events", ticketId).prettyPeek()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .asString();
+        //then
+        assertThat(events, containsString("\"status\":\"PENDING\""));
+        assertThat(events, containsString("\"status\":\"SUCCESS\""));
+    }
+
+    void testWatermarkTicketFinished_notModified(PublicationDTO publicationDTO, Content content,
+                                                 Matcher<Object> topicMatcher) throws Exception {
+        //given
+        delayWatermarkClient(500L, false);
+
+        Long publicationId = createAndVerifyPublication(publicationDTO, topicMatcher);
+        final UUID ticketId = triggerWatermarkCreationAndVerifyTicketId(publicationId, content);
+        Thread.sleep(WATERMARK_GENERATION_TIME);
+        final String eTag = RestAssured.when()
+                .get(watermarkBase + "/{ticket_id}", ticketId).prettyPeek()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .contentType(JSON)
+                .header(HttpHeaders.ETAG, notNullValue())
+                .body("id", is(ticketId.toString()))
+                .body("status", is(SUCCESS.toString()))
+                .body("document", notNullValue())
+                .extract()
+                .header(HttpHeaders.ETAG);
+        //when
+        RestAssured.given()
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .when()
+                .get(watermarkBase + "/{ticket_id}", ticketId).prettyPeek()
+                //then
+                .then()
+                .statusCode(HttpStatus.NOT_MODIFIED.value())
+                .body(isEmptyString());
+    }
+
+    void testWatermarkTicketBatchedPolling_success(PublicationDTO publicationDTO, Content content,
+                                                   Matcher<Object> topicMatcher) throws Exception {
+        //given
+        delayWatermarkClient(500L, false);
+
+        Long publicationId = createAndVerifyPublication(publicationDTO, topicMatcher);
+        final UUID ticketId = RestAssured.given()
+                .contentType(JSON)
+                .body(objectMapper.writeValueAsString(PublicationRequestDTO.builder()
+                        .publicationId(publicationId)
+                        .content(content)
+                        .build()))
+                .when()
+                .post(asyncWatermarkBase).prettyPeek()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .as(UUID.class);
+        awaitAndVerifyTicketStatus(ticketId, SUCCESS);
+        // evicted, so ticket is read from DB
+        ticketCache.onStatusChanged(new WatermarkStatusChangedEvent(ticketId, null));
+        //when
+        final List<Integer> statusCodes = IntStream.range(0, 20).parallel()
+                .mapToObj(i -> RestAssured.when()
+                        .get(asyncWatermarkBase + "/{ticket_id}", ticketId)
+                        .then()
+                        .body("id", is(ticketId.toString()))
+                        .body("status", is(SUCCESS.toString()))
+                        .body("document.author", is(publicationDTO.getAuthor()))
+                        .extract()
+                        .statusCode())
+                .collect(toList());
+        //then
+        assertThat(statusCodes, everyItem(is(HttpStatus.OK.value())));
+        RestAssured.when()
+                .get(asyncWatermarkBase + "/{ticket_id}", UUID.randomUUID()).prettyPeek()
+                .then()
+                .statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    void testWatermarkDocumentsBulk_success(PublicationDTO publicationDTO, Content content,
+                                            Matcher<Object> topicMatcher) throws Exception {
+        //given
+        delayWatermarkClient(500L, false);
+
+        final Long publicationId1 = createAndVerifyPublication(publicationDTO, topicMatcher);
+        final Long publicationId2 = createAndVerifyPublication(publicationDTO, topicMatcher);
+        final Long pendingPublicationId = createAndVerifyPublication(publicationDTO, topicMatcher);
+        final UUID pendingTicketId = triggerWatermarkCreationAndVerifyTicketId(pendingPublicationId, content);
+        final List<Long> publicationIds = Arrays.asList(publicationId1, publicationId2, pendingPublicationId);
+        //when
+        final Map<String, String> tickets = triggerBulkWatermarkCreation(BulkWatermarkRequestDTO.builder()
+                .content(content)
+                .publicationIds(publicationIds)
+                .build(), HttpStatus.OK);
+        //then
+        assertThat(tickets.keySet(), containsInAnyOrder(publicationId1.toString(), publicationId2.toString()));
+        final UUID ticketId1 = UUID.fromString(tickets.get(publicationId1.toString()));
+        final UUID ticketId2 = UUID.fromString(tickets.get(publicationId2.toString()));
+        pollAndVerifyTicketStatus(ticketId1, PENDING, nullValue());
+        awaitAndVerifyTicketStatus(ticketId1, SUCCESS);
+        awaitAndVerifyTicketStatus(ticketId2, SUCCESS);
+        awaitAndVerifyTicketStatus(pendingTicketId, SUCCESS);
+
+        //when
+        final Map<String, String> retriedTickets = triggerBulkWatermarkCreation(BulkWatermarkRequestDTO.builder()
+                .content(content)
+                .publicationIds(publicationIds)
+                .status(SUCCESS)
+                .build(), HttpStatus.OK);
+        //then
+        assertThat(retriedTickets.size(), is(3));
+        assertThat(retriedTickets.get(publicationId1.toString()), is(ticketId1.toString()));
+        assertThat(retriedTickets.get(pendingPublicationId.toString()), is(pendingTicketId.toString()));
+        pollAndVerifyTicketStatus(ticketId2, PENDING, nullValue());
+        awaitAndVerifyTicketStatus(ticketId2, SUCCESS);
+    }
+
+    void testWatermarkDocumentsBulk_batchLargerThanWorkers(PublicationDTO publicationDTO, Content content,
+                                                           Matcher<Object> topicMatcher) throws Exception {
+        //given
+        delayWatermarkClient(500L, false);
+        final int workers = watermarkJobProperties.getWorkers();
+        final List<Long> publicationIds = new ArrayList<>();
+        for (int i = 0; i < workers * 3; i++) {
+            // different watermark properties, so documents are not deduplicated by single flight
+            publicationIds.add(createAndVerifyPublication(PublicationDTO.builder()
+                    .content(content)
+                    .title(publicationDTO.getTitle() + i)
+                    .author(publicationDTO.getAuthor())
+                    .topic(publicationDTO.getTopic())
+                    .build(), topicMatcher));
+        }
+        //when
+        final Map<String, String> tickets = triggerBulkWatermarkCreation(BulkWatermarkRequestDTO.builder()
+                .content(content)
+                .publicationIds(publicationIds)
+                .build(), HttpStatus.OK);
+        //then
+        assertThat(tickets.size(), is(publicationIds.size()));
+        for (String ticketId : tickets.values()) {
+            awaitAndVerifyTicketStatus(UUID.fromString(ticketId), SUCCESS);
+        }
+        assertThat(maxBatchSize.get(), greaterThan(workers));
+    }
+
+    void testWatermarkDocumentsBulk_fail(Content content) throws Exception {
+        triggerBulkWatermarkCreation(BulkWatermarkRequestDTO.builder().build(), HttpStatus.BAD_REQUEST);
+        triggerBulkWatermarkCreation(BulkWatermarkRequestDTO.builder()
+                .content(content)
+                .status(PENDING)
+                .build(), HttpStatus.BAD_REQUEST);
+        triggerBulkWatermarkCreation(BulkWatermarkRequestDTO.builder()
+                .content(JOURNAL)
+                .topic(Book.Topic.MEDIA)
+                .build(), HttpStatus.BAD_REQUEST);
+    }
+
+    private Map<String, String> triggerBulkWatermarkCreation(BulkWatermarkRequestDTO request,
+                                                             HttpStatus expectedStatus) throws Exception {
+        return RestAssured.given()
+                .contentType(JSON)
+                .body(objectMapper.writeValueAsString(request))
+                .when()
+                .post(watermarkBase + "/bulk").prettyPeek()
+                .then()
+                .statusCode(expectedStatus.value())
+                .extract()
+                .jsonPath()
+                .getMap("");
+    }
+
+    private void awaitAndVerifyTicketStatus(UUID ticketId, Watermark.Status status) throws Exception {
+        RestAssured.given()
+                .queryParam("status", PENDING)
+                .when()
+                .get(watermarkBase + "/{ticket_id}/await", ticketId).prettyPeek()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("id", is(ticketId.toString()))
+                .body("status", is(status.toString()));
+    }
+
     private void pollAndVerifyTicketStatus(UUID ticketId, Watermark.Status status, Matcher<Object> documentMatcher) throws Exception {
         RestAssured.when()
                 .get(watermarkBase + "/{ticket_id}", ticketId).prettyPeek()
@@ -121,17 +381,40 @@ public abstract class BaseWatermarkControllerIT extends BaseControllerIT {
     }
 
     private void delayWatermarkClient(long timeout, boolean isFailed) {
+        delayWatermarkClient(timeout, isFailed ? Integer.MAX_VALUE : 0);
+    }
+
+    /**
+     * @param failedCalls Number of client calls failing before calls succeed
+     */
+    @SuppressWarnings("unchecked")
+    private void delayWatermarkClient(long timeout, int failedCalls) {
+        final AtomicInteger failures = new AtomicInteger(failedCalls);
         doAnswer(invocation -> {
             Thread.sleep(timeout);
-            if (isFailed) {
+            if (failures.getAndDecrement() > 0) {
                 throw new RuntimeException("Watermark client failed");
             }
             return "watermarkIT";
         }).when(watermarkClient).createWatermark(any());
+        doAnswer(invocation -> {
+            Thread.sleep(timeout);
+            if (failures.getAndDecrement() > 0) {
+                throw new RuntimeException("Watermark client failed");
+            }
+            final Map<UUID, WatermarkRequest> requests = (Map<UUID, WatermarkRequest>) invocation.getArguments()[0];
+            maxBatchSize.accumulateAndGet(requests.size(), Math::max);
+            return requests.keySet().stream()
+                    .collect(toMap(id -> id, id -> "watermarkIT"));
+        }).when(watermarkClient).createWatermarks(any());
     }
 
     @After
     public void tearDown() throws Exception {
+        // jobs of the test (e.g. retried failures) must not call client while it is stubbed by the next test
+        for (int i = 0; i < 100 && watermarkJobRepository.count() > 0; i++) {
+            Thread.sleep(100L);
+        }
         reset(watermarkClient);
         //allow main thread to write everything in log
         Thread.sleep(1000L);
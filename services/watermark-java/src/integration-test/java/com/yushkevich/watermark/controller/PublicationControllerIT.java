@@ -1,9 +1,13 @@
 package com.yushkevich.watermark.controller;
 
+import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import com.yushkevich.watermark.dto.PublicationDTO;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+
 import static com.yushkevich.watermark.domain.Content.BOOK;
 import static com.yushkevich.watermark.domain.Content.JOURNAL;
 import static org.hamcrest.Matchers.is;
@@ -32,12 +36,88 @@ public class PublicationControllerIT extends BasePublicationControllerIT {
         testUpdatePublication_success(originalJournal, journalToUpdate, nullValue());
     }
 
+    @Test
+    public void testImportPublications() throws Exception {
+        testImportPublications("application/x-ndjson",
+                "{\"content\":\"BOOK\",\"title\":\"t1\",\"author\":\"a1\",\"topic\":\"MEDIA\"}\n" +
+                "{\"content\":\"JOURNAL\",\"title\":\"t2\",\"author\":\"a2\"}\n" +
+                "{\"content\":\"BOOK\",\"title\":\"t3\",\"author\":\"a3\"}\n" +
+                "\n" +
+                "not a json\n" +
+                "{\"content\":\"JOURNAL\",\"title\":\"t6\",\"author\":\"a6\"}\n" +
+                "{\"content\":\"JOURNAL\",\"title\":\"t7\",\"author\":\"a7\"}\n" +
+                "{\"content\":\"BOOK\",\"title\":\"t8\",\"author\":\"a8\",\"topic\":\"SCIENCE\"}\n",
+                5, Arrays.asList(3, 5));
+
+        testImportPublications("text/csv",
+                "content,title,author,topic\n" +
+                "BOOK,t1,a1,BUSINESS\n" +
+                "JOURNAL,\"t2, part 2\",a2\n" +
+                "JOURNAL,,a3\n" +
+                "MAGAZINE,t4,a4\n" +
+                "JOURNAL,t5,a5\n" +
+                "BOOK,t6,a6,MEDIA\n" +
+                "JOURNAL,\"t7\nsecond line\",a7\n" +
+                "MAGAZINE,t8,a8\n",
+                5, Arrays.asList(4, 5, 10));
+    }
+
+    @Test
+    public void testImportPublications_rowRejectedByDatabase() throws Exception {
+        // title longer than column passes validation, so its batch fails in DB and is persisted row by row
+        testImportPublications("application/x-ndjson",
+                "{\"content\":\"JOURNAL\",\"title\":\"t1\",\"author\":\"a1\"}\n" +
+                "{\"content\":\"JOURNAL\",\"title\":\"" + Strings.repeat("t", 300) + "\",\"author\":\"a2\"}\n" +
+                "{\"content\":\"JOURNAL\",\"title\":\"t3\",\"author\":\"a3\"}\n",
+                2, Collections.singletonList(2));
+    }
+
+    @Test
+    public void testImportPublicationsStatements() throws Exception {
+        testImportPublicationsStatements(10, 2);
+    }
+
+    @Test
+    public void testExportPublications() throws Exception {
+        testExportPublications(book, is(book.getTopic().toString()));
+        testExportPublications(journal, nullValue());
+    }
+
+    @Test
+    public void testExportAndImportPublications() throws Exception {
+        testExportAndImportPublications(book, is(book.getTopic().toString()));
+        testExportAndImportPublications(journal, nullValue());
+    }
+
+    @Test
+    public void testStoreAndGetWatermarkedDocument() throws Exception {
+        testStoreAndGetWatermarkedDocument(book, is(book.getTopic().toString()));
+        testStoreAndGetWatermarkedDocument(journal, nullValue());
+    }
+
     @Test
     public void testPublicationList_success() throws Exception {
         testPublicationList_success(BOOK, 2);
         testPublicationList_success(JOURNAL, 0);
     }
 
+    @Test
+    public void testPublicationListByCursor_success() throws Exception {
+        testPublicationListByCursor_success(book, is(book.getTopic().toString()));
+        testPublicationListByCursor_success(journal, nullValue());
+    }
+
+    @Test
+    public void testPublicationListByCursor_fail() throws Exception {
+        testPublicationListByCursor_fail(BOOK);
+    }
+
+    @Test
+    public void testPublicationListStatements() throws Exception {
+        testPublicationListStatements(book, is(book.getTopic().toString()), 5);
+        testPublicationListStatements(journal, nullValue(), 5);
+    }
+
     @Test
     public void testFindPublication_success() throws Exception {
         testFindPublication_success(book, is(book.getTopic().toString()));
@@ -1,9 +1,12 @@
 package com.yushkevich.watermark.controller;
 
+import com.jayway.restassured.RestAssured;
 import org.junit.Test;
+import org.springframework.http.HttpStatus;
 
 import static com.yushkevich.watermark.domain.Content.BOOK;
 import static com.yushkevich.watermark.domain.Content.JOURNAL;
+import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 
@@ -32,4 +35,62 @@ public class WatermarkControllerIT extends BaseWatermarkControllerIT {
         testWatermarkTicketStatusFlow_success_updateAllowedAfterFail(book, BOOK, notNullValue());
         testWatermarkTicketStatusFlow_success_updateAllowedAfterFail(journal, JOURNAL, nullValue());
     }
+
+    @Test
+    public void testWatermarkTicketRetriedAfterFailure_success() throws Exception {
+        testWatermarkTicketRetriedAfterFailure_success(book, BOOK, notNullValue());
+    }
+
+    @Test
+    public void testWatermarkTicketAwaitStatusChange_success() throws Exception {
+        testWatermarkTicketAwaitStatusChange_success(book, BOOK, notNullValue());
+        testWatermarkTicketAwaitStatusChange_success(journal, JOURNAL, nullValue());
+    }
+
+    @Test
+    public void testWatermarkTicketStatusEvents_success() throws Exception {
+        testWatermarkTicketStatusEvents_success(book, BOOK, notNullValue());
+        testWatermarkTicketStatusEvents_success(journal, JOURNAL, nullValue());
+    }
+
+    @Test
+    public void testWatermarkTicketFinished_notModified() throws Exception {
+        testWatermarkTicketFinished_notModified(book, BOOK, notNullValue());
+        testWatermarkTicketFinished_notModified(journal, JOURNAL, nullValue());
+    }
+
+    @Test
+    public void testWatermarkTicketBatchedPolling_success() throws Exception {
+        testWatermarkTicketBatchedPolling_success(book, BOOK, notNullValue());
+        testWatermarkTicketBatchedPolling_success(journal, JOURNAL, nullValue());
+    }
+
+    @Test
+    public void testWatermarkDocumentsBulk_success() throws Exception {
+        testWatermarkDocumentsBulk_success(book, BOOK, notNullValue());
+        testWatermarkDocumentsBulk_success(journal, JOURNAL, nullValue());
+    }
+
+    @Test
+    public void testWatermarkDocumentsBulk_batchLargerThanWorkers() throws Exception {
+        testWatermarkDocumentsBulk_batchLargerThanWorkers(book, BOOK, notNullValue());
+    }
+
+    @Test
+    public void testWatermarkDocumentsBulk_fail() throws Exception {
+        testWatermarkDocumentsBulk_fail(BOOK);
+    }
+
+    @Test
+    public void testManagementEndpoints_onlyMetricsArePublic() throws Exception {
+        RestAssured.when()
+                .get(managementBase + "/metrics")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("$", hasKey("ticket.cache.hit"));
+        RestAssured.when()
+                .get(managementBase + "/env")
+                .then()
+                .statusCode(HttpStatus.UNAUTHORIZED.value());
+    }
 }
@@ -1,21 +1,32 @@
 package com.yushkevich.watermark.repository;
 
+import com.yushkevich.watermark.domain.Book;
 import com.yushkevich.watermark.domain.Content;
 import com.yushkevich.watermark.domain.Publication;
+import com.yushkevich.watermark.domain.PublicationSummary;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 import static com.yushkevich.watermark.RepositoryDataFactory.buildPublication;
+import static com.yushkevich.watermark.domain.Content.BOOK;
+import static java.util.stream.Collectors.toList;
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(SpringRunner.class)
 @DataJpaTest
@@ -76,6 +87,45 @@ public abstract class BasePublicationRepositoryIT {
         assertThat(publicationPage2.getContent().size(), is(1));
     }
 
+    @SuppressWarnings("unchecked")
+    public void testPublicationSummaries(Content content) throws Exception {
+        final PublicationRepository publicationRepository = resolveRepository(content);
+
+        //given
+        final Publication publication1 = entityManager.persist(buildPublication(content));
+        final Publication publication2 = entityManager.persist(buildPublication(content));
+        final Publication publication3 = entityManager.persist(buildPublication(content));
+        final PageRequest firstTwoById = new PageRequest(0, 2, Sort.Direction.ASC, "id");
+
+        //when
+        final Page<PublicationSummary> page = publicationRepository.findAllSummaries(firstTwoById);
+        //then
+        assertThat(page.getTotalElements(), is(3L));
+        assertThat(ids(page), is(Arrays.asList(publication1.getId(), publication2.getId())));
+        final PublicationSummary summary = page.getContent().get(0);
+        assertThat(summary.getContent(), is(content));
+        assertThat(summary.getTitle(), is(publication1.getTitle()));
+        assertThat(summary.getAuthor(), is(publication1.getAuthor()));
+        assertThat(summary.getTopic(), is(content == BOOK ? ((Book) publication1).getTopic() : null));
+
+        //when
+        final Slice<PublicationSummary> slice1 = publicationRepository.findSummariesByIdGreaterThan(0L, firstTwoById);
+        //then
+        assertThat(ids(slice1), is(Arrays.asList(publication1.getId(), publication2.getId())));
+        assertTrue(slice1.hasNext());
+
+        //when
+        final Slice<PublicationSummary> slice2 = publicationRepository.findSummariesByIdGreaterThan(publication2.getId(),
+                firstTwoById);
+        //then
+        assertThat(ids(slice2), is(Collections.singletonList(publication3.getId())));
+        assertFalse(slice2.hasNext());
+    }
+
+    private static List<Long> ids(Slice<PublicationSummary> slice) {
+        return slice.getContent().stream().map(PublicationSummary::getId).collect(toList());
+    }
+
     private PublicationRepository resolveRepository(Content content) {
         switch (content) {
             case BOOK:
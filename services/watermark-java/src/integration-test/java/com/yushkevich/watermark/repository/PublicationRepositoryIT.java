@@ -18,4 +18,10 @@ public class PublicationRepositoryIT extends BasePublicationRepositoryIT {
         testPublicationPageable(BOOK);
         testPublicationPageable(JOURNAL);
     }
+
+    @Test
+    public void testPublicationSummaries() throws Exception {
+        testPublicationSummaries(BOOK);
+        testPublicationSummaries(JOURNAL);
+    }
 }
@@ -0,0 +1,60 @@
+package com.yushkevich.watermark.repository;
+
+import com.yushkevich.watermark.domain.Book;
+import com.yushkevich.watermark.domain.Journal;
+import com.yushkevich.watermark.dto.PublicationDTO;
+import com.yushkevich.watermark.dto.TicketDTO;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.yushkevich.watermark.RepositoryDataFactory.createBook;
+import static com.yushkevich.watermark.RepositoryDataFactory.createJournal;
+import static com.yushkevich.watermark.domain.Watermark.Status.NEW;
+import static com.yushkevich.watermark.domain.Watermark.Status.SUCCESS;
+import static com.yushkevich.watermark.utils.mapper.PublicationMapper.buildPublicationDTO;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertThat;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import(TicketJdbcRepository.class)
+@ActiveProfiles("it")
+public class TicketJdbcRepositoryIT {
+
+    @Autowired
+    private TicketJdbcRepository ticketJdbcRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    public void testFindTickets() throws Exception {
+        //given
+        final Book book = createBook();
+        book.getWatermark().setStatus(SUCCESS.getName());
+        book.getWatermark().setProperty("property");
+        entityManager.persist(book);
+        final Journal journal = entityManager.persist(createJournal());
+        entityManager.flush();
+        final UUID bookTicketId = book.getWatermark().getId();
+        final UUID journalTicketId = journal.getWatermark().getId();
+        //when
+        final Map<UUID, TicketDTO> tickets = ticketJdbcRepository.findTickets(
+                Arrays.asList(bookTicketId, journalTicketId, UUID.randomUUID()));
+        //then
+        assertThat(tickets.keySet(), containsInAnyOrder(bookTicketId, journalTicketId));
+        final PublicationDTO document = buildPublicationDTO(book);
+        assertThat(tickets.get(bookTicketId), is(new TicketDTO(bookTicketId, SUCCESS, document)));
+        assertThat(tickets.get(journalTicketId), is(new TicketDTO(journalTicketId, NEW, null)));
+    }
+}
@@ -0,0 +1,110 @@
+package com.yushkevich.watermark.repository;
+
+import com.yushkevich.watermark.domain.Book;
+import com.yushkevich.watermark.domain.Watermark;
+import com.yushkevich.watermark.domain.WatermarkJob;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.yushkevich.watermark.RepositoryDataFactory.createBook;
+import static com.yushkevich.watermark.domain.Watermark.Status.PENDING;
+import static com.yushkevich.watermark.domain.Watermark.Status.SUCCESS;
+import static com.yushkevich.watermark.domain.WatermarkJob.Status.QUEUED;
+import static com.yushkevich.watermark.domain.WatermarkJob.Status.RUNNING;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+public class WatermarkJobRepositoryIT {
+
+    @Autowired
+    private WatermarkJobRepository watermarkJobRepository;
+    @Autowired
+    private WatermarkRepository watermarkRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    public void testJobClaimAndRequeue() throws Exception {
+        //given
+        final WatermarkJob job = entityManager.persist(buildJob(createPendingBook()));
+        //when
+        final List<WatermarkJob> queuedJobs = watermarkJobRepository.findByStatusOrderByIdAsc(QUEUED.getName(),
+                new PageRequest(0, 10));
+        //then
+        assertThat(queuedJobs.size(), is(1));
+
+        //when
+        final int claimed = watermarkJobRepository.transition(job.getId(), QUEUED.getName(), RUNNING.getName(), 1);
+        final int claimedAgain = watermarkJobRepository.transition(job.getId(), QUEUED.getName(), RUNNING.getName(), 1);
+        //then
+        assertThat(claimed, is(1));
+        assertThat(claimedAgain, is(0));
+        entityManager.clear();
+        assertThat(watermarkJobRepository.findOne(job.getId()).getStatus(), is(RUNNING));
+        assertThat(watermarkJobRepository.findOne(job.getId()).getAttempts(), is(1));
+
+        //when
+        final int requeued = watermarkJobRepository.requeueRunning();
+        //then
+        assertThat(requeued, is(1));
+        entityManager.clear();
+        assertThat(watermarkJobRepository.findOne(job.getId()).getStatus(), is(QUEUED));
+    }
+
+    @Test
+    public void testFindPendingWatermarksWithoutJob() throws Exception {
+        //given
+        final Book bookWithJob = createPendingBook();
+        entityManager.persist(buildJob(bookWithJob));
+        final Book bookWithoutJob = createPendingBook();
+        //when
+        final List<Watermark> orphans = watermarkRepository.findPendingWithoutJob();
+        //then
+        assertThat(orphans.size(), is(1));
+        assertThat(orphans.get(0).getId(), is(bookWithoutJob.getWatermark().getId()));
+        assertTrue(watermarkJobRepository.existsByWatermarkId(bookWithJob.getWatermark().getId()));
+    }
+
+    @Test
+    public void testRemoveJobAndFinishWatermark() throws Exception {
+        //given
+        final Book book = createPendingBook();
+        final WatermarkJob job = entityManager.persist(buildJob(book));
+        final UUID watermarkId = book.getWatermark().getId();
+        //when
+        final int removed = watermarkJobRepository.removeById(job.getId());
+        // transition clears persistence context, removal is not lost with it
+        watermarkRepository.transition(watermarkId, PENDING.getName(), SUCCESS.getName(), "watermarkIT");
+        //then
+        assertThat(removed, is(1));
+        assertFalse(watermarkJobRepository.existsByWatermarkId(watermarkId));
+        assertThat(watermarkRepository.findOne(watermarkId).getStatus(), is(SUCCESS));
+    }
+
+    private Book createPendingBook() {
+        final Book book = createBook();
+        book.getWatermark().setStatus(PENDING.getName());
+        return entityManager.persist(book);
+    }
+
+    private WatermarkJob buildJob(Book book) {
+        return WatermarkJob.builder()
+                .watermarkId(book.getWatermark().getId())
+                .publicationId(book.getId())
+                .content(book.getContent().getName())
+                .status(QUEUED.getName())
+                .build();
+    }
+}
@@ -1,25 +1,39 @@
 package com.yushkevich.watermark.repository;
 
+import com.yushkevich.watermark.SqlStatementCounter;
 import com.yushkevich.watermark.domain.Book;
 import com.yushkevich.watermark.domain.Journal;
 import com.yushkevich.watermark.domain.Watermark;
+import com.yushkevich.watermark.dto.TicketDTO;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static com.yushkevich.watermark.RepositoryDataFactory.createBook;
 import static com.yushkevich.watermark.RepositoryDataFactory.createJournal;
+import static com.yushkevich.watermark.domain.Content.BOOK;
+import static com.yushkevich.watermark.domain.Watermark.Status.FAILED;
+import static com.yushkevich.watermark.domain.Watermark.Status.PENDING;
+import static com.yushkevich.watermark.domain.Watermark.Status.SUCCESS;
 import static com.yushkevich.watermark.utils.WatermarkGenerator.generateWatermark;
+import static com.yushkevich.watermark.utils.mapper.WatermarkMapper.buildTicketDTO;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.*;
 
 @RunWith(SpringRunner.class)
 @DataJpaTest
+@ActiveProfiles("it")
 public class WatermarkRepositoryIT {
 
     @Autowired
@@ -65,6 +79,113 @@ public class WatermarkRepositoryIT {
         assertTrue(watermarkRepository.findAll().isEmpty());
     }
 
+    @Test
+    public void testTicketIsLoadedWithOneStatement() throws Exception {
+        //given
+        final Book book = createBook();
+        book.getWatermark().setStatus(SUCCESS.getName());
+        entityManager.persist(book);
+        final UUID watermarkId = book.getWatermark().getId();
+        entityManager.flush();
+        entityManager.clear();
+        SqlStatementCounter.reset();
+        //when
+        final TicketDTO ticket = buildTicketDTO(watermarkRepository.findById(watermarkId));
+        //then
+        assertThat(ticket.getDocument().getTitle(), is(book.getTitle()));
+        assertThat(SqlStatementCounter.count(), is(1L));
+    }
+
+    @Test
+    public void testPendingWatermarksWithoutJobAreLoadedWithOneStatement() throws Exception {
+        //given
+        for (int i = 0; i < 3; i++) {
+            final Book book = createBook();
+            book.getWatermark().setStatus(PENDING.getName());
+            entityManager.persist(book);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        SqlStatementCounter.reset();
+        //when
+        final List<Watermark> watermarks = watermarkRepository.findPendingWithoutJob();
+        watermarks.forEach(watermark -> watermark.getPublication().getContent());
+        //then
+        assertThat(watermarks.size(), is(3));
+        assertThat(SqlStatementCounter.count(), is(1L));
+    }
+
+    @Test
+    public void testWatermarksAreMarkedPendingWithSetBasedStatements() throws Exception {
+        //given
+        final List<Long> failedBookIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            failedBookIds.add(persistBook(FAILED).getId());
+        }
+        final Book pendingBook = persistBook(PENDING);
+        final Book successBook = persistBook(SUCCESS);
+        final Book bookWithoutWatermark = createBook();
+        bookWithoutWatermark.setWatermark(null);
+        entityManager.persist(bookWithoutWatermark);
+        entityManager.flush();
+        entityManager.clear();
+        final PublicationFilter filter = PublicationFilter.builder().content(BOOK).build();
+        SqlStatementCounter.reset();
+        //when
+        final Map<Long, UUID> candidates = watermarkRepository.findWatermarkCandidates(filter);
+        final int updated = watermarkRepository.markPending(candidates.values());
+        //then
+        assertThat(candidates.keySet(), containsInAnyOrder(failedBookIds.get(0), failedBookIds.get(1),
+                failedBookIds.get(2), successBook.getId()));
+        assertThat(updated, is(4));
+        //select, lock and update
+        assertThat(SqlStatementCounter.count(), is(3L));
+        assertThat(watermarkRepository.findPendingWithoutJob().size(), is(5));
+        assertThat(watermarkRepository.createPendingWatermarks(filter).keySet(),
+                containsInAnyOrder(bookWithoutWatermark.getId()));
+
+        //when
+        final Map<Long, UUID> failedCandidates = watermarkRepository.findWatermarkCandidates(
+                PublicationFilter.builder().content(BOOK).watermarkStatus(FAILED).build());
+        //then
+        assertTrue(failedCandidates.isEmpty());
+        assertTrue(watermarkRepository.findWatermarkCandidates(
+                PublicationFilter.builder().content(BOOK).publicationIds(Arrays.asList(pendingBook.getId())).build())
+                .isEmpty());
+    }
+
+    @Test
+    public void testSelectionByManyPublicationIdsIsPartitioned() throws Exception {
+        //given
+        final List<Long> publicationIds = new ArrayList<>();
+        for (long id = 1; id <= WatermarkRepositoryCustom.MAX_IDS_PER_QUERY; id++) {
+            publicationIds.add(-id); // not existing publications
+        }
+        final Book failedBook = persistBook(FAILED);
+        final Book bookWithoutWatermark = createBook();
+        bookWithoutWatermark.setWatermark(null);
+        entityManager.persist(bookWithoutWatermark);
+        publicationIds.add(failedBook.getId());
+        publicationIds.add(bookWithoutWatermark.getId());
+        entityManager.flush();
+        entityManager.clear();
+        final PublicationFilter filter = PublicationFilter.builder().content(BOOK).publicationIds(publicationIds).build();
+        SqlStatementCounter.reset();
+        //when
+        final Map<Long, UUID> candidates = watermarkRepository.findWatermarkCandidates(filter);
+        //then
+        assertThat(candidates.keySet(), containsInAnyOrder(failedBook.getId()));
+        //select by two partitions of ids and lock
+        assertThat(SqlStatementCounter.count(), is(3L));
+
+        //when
+        final Map<Long, UUID> created = watermarkRepository.createPendingWatermarks(filter);
+        //then
+        assertThat(created.keySet(), containsInAnyOrder(bookWithoutWatermark.getId()));
+        assertThat(watermarkRepository.findById(created.get(bookWithoutWatermark.getId())).getStatus(),
+                is(PENDING));
+    }
+
     @Test
     public void testWatermarkForJournalCrudOperations() throws Exception {
         //create watermark
@@ -98,4 +219,10 @@ public class WatermarkRepositoryIT {
         assertNull(journalRepository.findOne(journal.getId()).getWatermark());
         assertTrue(watermarkRepository.findAll().isEmpty());
     }
+
+    private Book persistBook(Watermark.Status status) {
+        final Book book = createBook();
+        book.getWatermark().setStatus(status.getName());
+        return entityManager.persist(book);
+    }
 }
@@ -1,18 +1,28 @@
 package com.yushkevich.watermark.service.impl;
 
+import com.yushkevich.watermark.SqlStatementCounter;
+import com.yushkevich.watermark.ThreadsProperties;
 import com.yushkevich.watermark.domain.Content;
 import com.yushkevich.watermark.domain.Publication;
+import com.yushkevich.watermark.domain.PublicationSummary;
 import com.yushkevich.watermark.domain.Watermark;
 import com.yushkevich.watermark.exception.NotFoundException;
+import com.yushkevich.watermark.repository.TicketJdbcRepository;
 import com.yushkevich.watermark.service.PublicationService;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.UUID;
+
 import static com.yushkevich.watermark.RepositoryDataFactory.buildPublication;
 import static com.yushkevich.watermark.domain.Watermark.Status.*;
 import static com.yushkevich.watermark.utils.WatermarkGenerator.generateWatermark;
@@ -20,12 +30,18 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
 
 @RunWith(SpringRunner.class)
-@ComponentScan({"com.yushkevich.watermark.service.impl", "com.yushkevich.watermark.client"})
+@ComponentScan({"com.yushkevich.watermark.service.impl", "com.yushkevich.watermark.client", "com.yushkevich.watermark.job",
+        "com.yushkevich.watermark.cache", "com.yushkevich.watermark.state", "com.yushkevich.watermark.document"})
+@Import({ThreadsProperties.class, TicketJdbcRepository.class})
 @DataJpaTest
+@AutoConfigureJson
+@ActiveProfiles("it")
 public abstract class BasePublicationServiceIT {
 
     @Autowired
     protected PublicationService publicationService;
+    @Autowired
+    private TestEntityManager entityManager;
 
     protected void testPublicationCrudOperations(Content content, String watermarkProperty) {
         //create
@@ -65,13 +81,13 @@ public abstract class BasePublicationServiceIT {
         publicationService.create(buildPublication(content));
 
         //when
-        final Page<Publication> journalPage1 = publicationService.findAllByPage(new PageRequest(0, 2), content);
+        final Page<PublicationSummary> journalPage1 = publicationService.findAllByPage(new PageRequest(0, 2), content);
         //then
         assertThat(journalPage1.getTotalElements(), is(3L));
         assertThat(journalPage1.getContent().size(), is(2));
 
         //when
-        final Page<Publication> journalPage2 = publicationService.findAllByPage(new PageRequest(1, 2), content);
+        final Page<PublicationSummary> journalPage2 = publicationService.findAllByPage(new PageRequest(1, 2), content);
         //then
         assertThat(journalPage2.getTotalElements(), is(3L));
         assertThat(journalPage2.getContent().size(), is(1));
@@ -84,9 +100,11 @@ public abstract class BasePublicationServiceIT {
         final Publication publicationWithoutWatermark = publicationService.create(publication);
         assertNull(publicationWithoutWatermark.getWatermark());
         //when
-        final Watermark watermark = publicationService.setWatermark(publicationWithoutWatermark.getId(), content);
+        final UUID watermarkId = publicationService.setWatermark(publicationWithoutWatermark.getId(), content);
         //then
-        assertThat(publicationService.find(publication.getId(), content).getWatermark(), is(watermark));
+        final Watermark watermark = publicationService.find(publication.getId(), content).getWatermark();
+        assertThat(watermark.getId(), is(watermarkId));
+        assertThat(watermark.getStatus(), is(PENDING));
 
         //given
         final Publication publicationWithNewWatermark = publicationService.create(buildPublication(content));
@@ -129,19 +147,53 @@ public abstract class BasePublicationServiceIT {
         fail("Should throw exception");
     }
 
-    protected void testWatermarkStatusUpdateForPublication(Content content) {
+    protected void testWatermarkSetUpStatements(Content content) {
         //given
-        Publication publication = publicationService.create(buildPublication(content));
+        final Publication publication = publicationService.create(buildPublication(content));
+        final Long id = publication.getId();
+        flushAndClear();
         //when
-        publicationService.updateWatermarkStatus(publication, "");
+        final UUID watermarkId = publicationService.setWatermark(id, content);
         //then
-        assertThat(publicationService.find(publication.getId(), content).getWatermark().getStatus(), is(FAILED));
+        //read and conditional update
+        assertThat(SqlStatementCounter.count(), is(2L));
+        assertThat(publicationService.find(id, content).getWatermark().getId(), is(watermarkId));
+
+        //given
+        final Publication publicationWithoutWatermark = buildPublication(content);
+        publicationWithoutWatermark.setWatermark(null);
+        final Long idWithoutWatermark = publicationService.create(publicationWithoutWatermark).getId();
+        flushAndClear();
+        //when
+        publicationService.setWatermark(idWithoutWatermark, content);
+        //then
+        //read, insert of watermark and conditional update of publication
+        assertThat(SqlStatementCounter.count(), is(3L));
+
+        //given
+        final Publication publicationToUpdate = buildPublication(content);
+        publicationToUpdate.setId(publicationService.create(buildPublication(content)).getId());
+        publicationToUpdate.setAuthor("newAuthor");
+        flushAndClear();
+        //when
+        publicationService.update(publicationToUpdate);
+        //then
+        //watermark state, read(plus lookup of inverse one-to-one side of watermark) and update of publication, NEW
+        //watermark is not updated
+        assertThat(SqlStatementCounter.count(), is(4L));
 
         //given
-        publication = publicationService.create(buildPublication(content));
+        flushAndClear();
         //when
-        publicationService.updateWatermarkStatus(publication, "someProperty");
+        publicationService.delete(id, content);
         //then
-        assertThat(publicationService.find(publication.getId(), content).getWatermark().getStatus(), is(SUCCESS));
+        //read, delete of publication and its watermark
+        assertThat(SqlStatementCounter.count(), is(3L));
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+        SqlStatementCounter.reset();
     }
 }
@@ -44,8 +44,8 @@ public class PublicationServiceIT extends BasePublicationServiceIT {
     }
 
     @Test
-    public void testWatermarkStatusUpdateForPublication() throws Exception {
-        testWatermarkStatusUpdateForPublication(BOOK);
-        testWatermarkStatusUpdateForPublication(JOURNAL);
+    public void testWatermarkSetUpStatements() throws Exception {
+        testWatermarkSetUpStatements(BOOK);
+        testWatermarkSetUpStatements(JOURNAL);
     }
 }
@@ -0,0 +1,125 @@
+package com.yushkevich.watermark.state;
+
+import com.yushkevich.watermark.SqlStatementCounter;
+import com.yushkevich.watermark.domain.Book;
+import com.yushkevich.watermark.domain.Watermark;
+import com.yushkevich.watermark.domain.WatermarkState;
+import com.yushkevich.watermark.dto.PublicationDTO;
+import com.yushkevich.watermark.exception.WatermarkException;
+import com.yushkevich.watermark.repository.WatermarkRepository;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.UUID;
+
+import static com.yushkevich.watermark.RepositoryDataFactory.createBook;
+import static com.yushkevich.watermark.domain.Watermark.Status.*;
+import static com.yushkevich.watermark.utils.mapper.PublicationMapper.buildPublicationDTO;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@ComponentScan("com.yushkevich.watermark.state")
+@DataJpaTest
+@ActiveProfiles("it")
+public class WatermarkStateMachineIT {
+
+    @Autowired
+    private WatermarkStateMachine watermarkStateMachine;
+    @Autowired
+    private WatermarkRepository watermarkRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    public void testWatermarkIsFinishedWithOneStatement() throws Exception {
+        //given
+        final Book book = persistBook(PENDING);
+        final UUID watermarkId = book.getWatermark().getId();
+        final PublicationDTO document = buildPublicationDTO(book);
+        final long conflicts = metric("watermark.transition.conflict");
+        flushAndClear();
+        //when
+        final boolean finished = watermarkStateMachine.finish(watermarkId, "property", document);
+        //then
+        assertTrue(finished);
+        assertThat(SqlStatementCounter.count(), is(1L));
+        final Watermark watermark = watermarkRepository.findOne(watermarkId);
+        assertThat(watermark.getStatus(), is(SUCCESS));
+        assertThat(watermark.getProperty(), is("property"));
+        assertThat(watermark.getVersion(), is(1L));
+
+        //when
+        final boolean finishedTwice = watermarkStateMachine.finish(watermarkId, "", null);
+        //then
+        assertFalse(finishedTwice);
+        assertThat(watermarkRepository.findOne(watermarkId).getStatus(), is(SUCCESS));
+        assertThat(metric("watermark.transition.conflict"), is(conflicts + 1));
+    }
+
+    @Test
+    public void testTransitionIsRetriedOnConflict() throws Exception {
+        //given
+        final Book book = persistBook(FAILED);
+        final UUID watermarkId = book.getWatermark().getId();
+        flushAndClear();
+        final WatermarkState staleState = watermarkRepository.findState(watermarkId);
+        // concurrent change in between read of state and transition
+        watermarkRepository.compareAndSet(watermarkId, staleState.getVersion(), NEW.getName(), null);
+        final long retries = metric("watermark.transition.retry");
+        //when
+        final Watermark.Status previousStatus = watermarkStateMachine.moveTo(staleState, PENDING);
+        //then
+        assertThat(previousStatus, is(NEW));
+        assertThat(metric("watermark.transition.retry"), is(retries + 1));
+        final Watermark watermark = watermarkRepository.findOne(watermarkId);
+        assertThat(watermark.getStatus(), is(PENDING));
+        assertThat(watermark.getVersion(), is(2L));
+    }
+
+    @Test
+    public void testTransitionOfPendingWatermarkIsRejected() throws Exception {
+        //given
+        final Book book = persistBook(PENDING);
+        flushAndClear();
+        final WatermarkState state = watermarkRepository.findState(book.getWatermark().getId());
+        final long rejected = metric("watermark.transition.rejected");
+        //when
+        try {
+            watermarkStateMachine.moveTo(state, NEW);
+            fail("Should throw exception");
+        } catch (WatermarkException ignored) {
+        }
+        //then
+        assertThat(metric("watermark.transition.rejected"), is(rejected + 1));
+        assertThat(watermarkRepository.findOne(state.getWatermarkId()).getStatus(), is(PENDING));
+    }
+
+    private Book persistBook(Watermark.Status status) {
+        final Book book = createBook();
+        book.getWatermark().setStatus(status.getName());
+        return entityManager.persist(book);
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+        SqlStatementCounter.reset();
+    }
+
+    private long metric(String name) {
+        return watermarkStateMachine.metrics().stream()
+                .filter(metric -> metric.getName().equals(name))
+                .map(Metric::getValue)
+                .findFirst()
+                .orElseThrow(IllegalArgumentException::new)
+                .longValue();
+    }
+}
@@ -0,0 +1,33 @@
+package com.yushkevich.watermark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic test data for benchmarks.
+ */
+
+public final class BenchmarkData {
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 ";
+
+    private BenchmarkData() {
+    }
+
+    public static String randomString(Random random, int length) {
+        final char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        }
+        return new String(chars);
+    }
+
+    public static List<String> randomStrings(Random random, int count, int length) {
+        final List<String> strings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            strings.add(randomString(random, length));
+        }
+        return strings;
+    }
+}
@@ -0,0 +1,44 @@
+package com.yushkevich.watermark.domain;
+
+import com.yushkevich.watermark.utils.WatermarkGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.yushkevich.watermark.BenchmarkData.randomString;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class PublicationBenchmark {
+
+    @Param({"8", "64", "512"})
+    private int stringLength;
+
+    private Book book;
+    private Journal journal;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        book = new Book(randomString(random, stringLength), randomString(random, stringLength), Book.Topic.SCIENCE);
+        journal = new Journal(randomString(random, stringLength), randomString(random, stringLength));
+    }
+
+    @Benchmark
+    public List<String> bookWatermarkProperties() {
+        return book.getWatermarkProperties();
+    }
+
+    @Benchmark
+    public List<String> journalWatermarkProperties() {
+        return journal.getWatermarkProperties();
+    }
+
+    @Benchmark
+    public String bookWatermark() {
+        return WatermarkGenerator.generateWatermark(book.getWatermarkProperties());
+    }
+}
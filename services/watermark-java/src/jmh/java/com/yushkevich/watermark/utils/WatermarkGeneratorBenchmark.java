@@ -0,0 +1,53 @@
+package com.yushkevich.watermark.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.yushkevich.watermark.BenchmarkData.randomStrings;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class WatermarkGeneratorBenchmark {
+
+    @Param({"3", "4", "16"})
+    private int propertyCount;
+
+    @Param({"8", "64", "512"})
+    private int stringLength;
+
+    private List<String> watermarkProperties;
+    private StringBuilder watermark;
+    private ByteBuffer watermarkBytes;
+
+    @Setup
+    public void setUp() {
+        watermarkProperties = randomStrings(new Random(42), propertyCount, stringLength);
+        watermark = new StringBuilder(WatermarkGenerator.watermarkLength(watermarkProperties));
+        watermarkBytes = ByteBuffer.allocate(watermark.capacity() * 3);
+    }
+
+    @Benchmark
+    public String generateWatermark() {
+        return WatermarkGenerator.generateWatermark(watermarkProperties);
+    }
+
+    // reused buffers, gc.alloc.rate.norm is expected to be ~0 B/op
+    @Benchmark
+    public StringBuilder appendWatermark() {
+        watermark.setLength(0);
+        return WatermarkGenerator.appendWatermark(watermark, watermarkProperties);
+    }
+
+    @Benchmark
+    public int encodeWatermark() {
+        watermark.setLength(0);
+        watermarkBytes.clear();
+        return WatermarkGenerator.encodeWatermark(WatermarkGenerator.appendWatermark(watermark, watermarkProperties),
+                watermarkBytes);
+    }
+}
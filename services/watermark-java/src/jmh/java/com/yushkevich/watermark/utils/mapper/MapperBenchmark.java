@@ -0,0 +1,115 @@
+package com.yushkevich.watermark.utils.mapper;
+
+import com.yushkevich.watermark.domain.Book;
+import com.yushkevich.watermark.domain.Publication;
+import com.yushkevich.watermark.domain.Watermark;
+import com.yushkevich.watermark.dto.PublicationDTO;
+import com.yushkevich.watermark.dto.TicketDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+
+import java.beans.PropertyDescriptor;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.yushkevich.watermark.BenchmarkData.randomString;
+import static com.yushkevich.watermark.domain.Book.Topic.SCIENCE;
+import static com.yushkevich.watermark.domain.Content.BOOK;
+import static com.yushkevich.watermark.domain.Watermark.Status.SUCCESS;
+import static org.springframework.beans.BeanUtils.copyProperties;
+
+/**
+ * Compares explicit mappers with reflective {@code BeanUtils.copyProperties} mapping they replaced.
+ * Run with {@code ./gradlew jmh}.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class MapperBenchmark {
+
+    @Param({"8", "64", "512"})
+    private int stringLength;
+
+    private PublicationDTO publicationDTO;
+    private Publication publication;
+    private Watermark watermark;
+    private Publication patch;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        publicationDTO = new PublicationDTO(1L, BOOK, randomString(random, stringLength),
+                randomString(random, stringLength), SCIENCE);
+        publication = PublicationMapper.buildPublication(publicationDTO);
+        watermark = Watermark.builder()
+                .id(UUID.randomUUID())
+                .publication(publication)
+                .status(SUCCESS.getName())
+                .build();
+        publication.setWatermark(watermark);
+        patch = PublicationMapper.buildPublication(PublicationDTO.builder()
+                .id(1L)
+                .content(BOOK)
+                .author(randomString(random, stringLength))
+                .build());
+    }
+
+    @Benchmark
+    public Publication buildPublication() {
+        return PublicationMapper.buildPublication(publicationDTO);
+    }
+
+    @Benchmark
+    public Publication buildPublication_reflective() {
+        final Book book = new Book();
+        copyProperties(publicationDTO, book);
+        book.setTopic(publicationDTO.getTopic().getName());
+        book.setContent(publicationDTO.getContent());
+        return book;
+    }
+
+    @Benchmark
+    public TicketDTO buildTicketDTO() {
+        return WatermarkMapper.buildTicketDTO(watermark);
+    }
+
+    @Benchmark
+    public TicketDTO buildTicketDTO_reflective() {
+        final TicketDTO ticket = new TicketDTO();
+        copyProperties(watermark, ticket);
+        final PublicationDTO document = new PublicationDTO();
+        copyProperties(watermark.getPublication(), document);
+        document.setContent(publication.getContent());
+        document.setTopic(((Book) publication).getTopic());
+        ticket.setDocument(document);
+        return ticket;
+    }
+
+    @Benchmark
+    public Publication patchPublication() {
+        PublicationMapper.patchPublication(patch, publication);
+        return publication;
+    }
+
+    @Benchmark
+    public Publication patchPublication_reflective() {
+        copyProperties(patch, publication, nullPropertyNames(patch));
+        return publication;
+    }
+
+    private static String[] nullPropertyNames(Object source) {
+        final BeanWrapper src = new BeanWrapperImpl(source);
+        final Set<String> emptyNames = new HashSet<>();
+        for (PropertyDescriptor pd : src.getPropertyDescriptors()) {
+            if (src.getPropertyValue(pd.getName()) == null) {
+                emptyNames.add(pd.getName());
+            }
+        }
+        return emptyNames.toArray(new String[emptyNames.size()]);
+    }
+}
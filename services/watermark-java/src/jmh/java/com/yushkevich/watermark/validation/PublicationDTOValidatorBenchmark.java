@@ -0,0 +1,54 @@
+package com.yushkevich.watermark.validation;
+
+import com.yushkevich.watermark.dto.PublicationDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.yushkevich.watermark.BenchmarkData.randomString;
+import static com.yushkevich.watermark.domain.Book.Topic.SCIENCE;
+import static com.yushkevich.watermark.domain.Content.BOOK;
+
+/**
+ * Validation as it is invoked by Spring MVC: against {@link BeanPropertyBindingResult} created per request.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class PublicationDTOValidatorBenchmark {
+
+    @Param({"8", "64", "512"})
+    private int stringLength;
+
+    private final PublicationDTOValidator validator = new PublicationDTOValidator();
+    private PublicationDTO validDTO;
+    private PublicationDTO invalidDTO;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        validDTO = new PublicationDTO(null, BOOK, randomString(random, stringLength), randomString(random, stringLength),
+                SCIENCE);
+        invalidDTO = new PublicationDTO(null, BOOK, randomString(random, stringLength), null, null);
+    }
+
+    @Benchmark
+    public Errors validate_valid() {
+        return validate(validDTO);
+    }
+
+    @Benchmark
+    public Errors validate_invalid() {
+        return validate(invalidDTO);
+    }
+
+    private Errors validate(PublicationDTO dto) {
+        final Errors errors = new BeanPropertyBindingResult(dto, "publicationDTO");
+        validator.validate(dto, errors);
+        return errors;
+    }
+}
@@ -0,0 +1,55 @@
+package com.yushkevich.watermark.loadtest;
+
+import lombok.Getter;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency histogram(microseconds) and error counter of one endpoint.
+ */
+
+class LatencyStats {
+
+    private static final long HIGHEST_TRACKABLE_LATENCY = TimeUnit.MINUTES.toMicros(1);
+
+    @Getter
+    private final String name;
+    private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_LATENCY, 3);
+    private final AtomicLong errors = new AtomicLong();
+
+    LatencyStats(String name) {
+        this.name = name;
+    }
+
+    void record(long startNanos) {
+        final long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        histogram.recordValue(Math.min(micros, HIGHEST_TRACKABLE_LATENCY));
+    }
+
+    void error() {
+        errors.incrementAndGet();
+    }
+
+    String report(long elapsedNanos) {
+        final long count = histogram.getTotalCount();
+        final double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        return String.format("%-14s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f",
+                name, count, errors.get(), count / seconds,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    static String header() {
+        return String.format("%-14s %9s %7s %10s %9s %9s %9s %9s",
+                "endpoint", "requests", "errors", "req/s", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,175 @@
+package com.yushkevich.watermark.loadtest;
+
+import com.yushkevich.watermark.Application;
+import com.yushkevich.watermark.domain.Book;
+import com.yushkevich.watermark.domain.Content;
+import com.yushkevich.watermark.dto.PublicationDTO;
+import com.yushkevich.watermark.dto.PublicationRequestDTO;
+import com.yushkevich.watermark.dto.TicketDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.yushkevich.watermark.domain.Watermark.Status.FAILED;
+import static com.yushkevich.watermark.domain.Watermark.Status.SUCCESS;
+import static java.util.Objects.nonNull;
+
+/**
+ * Load generator for watermark ticket lifecycle: create publication -> POST watermark -> poll ticket until it is
+ * finished. Starts application in-process (profile {@code loadtest}, near-zero watermark generation time) on random
+ * port and drives it by {@code loadTest.users} concurrent users for {@code loadTest.durationInSeconds}.
+ * Reports throughput and p50/p99/p999 latency per endpoint and for the whole lifecycle.
+ * <p>
+ * Run with {@code ./gradlew loadTest [-PloadTest.users=50 -PloadTest.durationInSeconds=60]}.
+ * Concurrent-ticket capacity of platform and virtual threads (Java 21+) is compared by runs with realistic generation
+ * time and many users, e.g.
+ * {@code -PloadTest.users=500 -PloadTest.clientDelayInMilliseconds=1000 -PloadTest.javaHome=<JDK 21+>
+ * [-PloadTest.virtualThreads=true]}, see measured runs in README.
+ */
+
+@Slf4j
+public class WatermarkLoadTest {
+
+    private static final boolean VIRTUAL_THREADS = Boolean.getBoolean("loadTest.virtualThreads");
+
+    private final int users = Integer.getInteger("loadTest.users", 20);
+    private final long durationInSeconds = Long.getLong("loadTest.durationInSeconds", 30L);
+    private final long warmUpInSeconds = Long.getLong("loadTest.warmUpInSeconds", 5L);
+    private final long pollIntervalInMilliseconds = Long.getLong("loadTest.pollIntervalInMilliseconds", 10L);
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final LatencyStats createPublication = new LatencyStats("publication");
+    private final LatencyStats watermarkDocument = new LatencyStats("watermark");
+    private final LatencyStats pollTicket = new LatencyStats("ticket");
+    private final LatencyStats lifecycle = new LatencyStats("lifecycle");
+
+    private volatile boolean recording;
+    private volatile boolean running = true;
+
+    public static void main(String[] args) throws Exception {
+        // keep connection per user alive
+        System.setProperty("http.maxConnections", String.valueOf(Integer.getInteger("loadTest.users", 20)));
+        final List<String> properties = new ArrayList<>(Arrays.asList("server.port=0",
+                "watermark.threads.virtual=" + VIRTUAL_THREADS));
+        final Long clientDelay = Long.getLong("loadTest.clientDelayInMilliseconds");
+        if (nonNull(clientDelay)) {
+            properties.add("watermark.client.delayInMilliseconds=" + clientDelay);
+        }
+        final ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+                .profiles("loadtest")
+                .properties(properties.toArray(new String[0]))
+                .run(args);
+        try {
+            final String port = context.getEnvironment().getProperty("local.server.port");
+            new WatermarkLoadTest().run("http://localhost:" + port + "/api/v1");
+        } finally {
+            context.close();
+        }
+    }
+
+    private void run(String baseUrl) throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(users);
+        final CountDownLatch finished = new CountDownLatch(users);
+        for (int i = 0; i < users; i++) {
+            executor.execute(() -> {
+                try {
+                    while (running) {
+                        runLifecycle(baseUrl);
+                    }
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+
+        log.info("Warming up {} users for {}s", users, warmUpInSeconds);
+        TimeUnit.SECONDS.sleep(warmUpInSeconds);
+        recording = true;
+        final long start = System.nanoTime();
+        log.info("Recording for {}s", durationInSeconds);
+        TimeUnit.SECONDS.sleep(durationInSeconds);
+        recording = false;
+        final long elapsed = System.nanoTime() - start;
+
+        running = false;
+        finished.await(1, TimeUnit.MINUTES);
+        executor.shutdownNow();
+
+        report(elapsed);
+    }
+
+    private void runLifecycle(String baseUrl) {
+        final long lifecycleStart = System.nanoTime();
+        try {
+            final Long publicationId = call(createPublication, () -> restTemplate.postForObject(
+                    baseUrl + "/publication/create",
+                    PublicationDTO.builder()
+                            .content(Content.BOOK)
+                            .title("loadTestTitle")
+                            .author("loadTestAuthor")
+                            .topic(Book.Topic.SCIENCE)
+                            .build(),
+                    PublicationDTO.class).getId());
+
+            final UUID ticketId = call(watermarkDocument, () -> restTemplate.postForObject(baseUrl + "/watermark",
+                    PublicationRequestDTO.builder().publicationId(publicationId).content(Content.BOOK).build(),
+                    UUID.class));
+
+            TicketDTO ticket;
+            do {
+                TimeUnit.MILLISECONDS.sleep(pollIntervalInMilliseconds);
+                ticket = call(pollTicket, () -> restTemplate.getForObject(baseUrl + "/watermark/{ticket_id}",
+                        TicketDTO.class, ticketId));
+            } while (running && SUCCESS != ticket.getStatus() && FAILED != ticket.getStatus());
+
+            if (SUCCESS == ticket.getStatus()) {
+                if (recording) {
+                    lifecycle.record(lifecycleStart);
+                }
+            } else if (FAILED == ticket.getStatus()) {
+                lifecycle.error();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        } catch (Exception e) {
+            log.debug("Failure of lifecycle", e);
+        }
+    }
+
+    private <T> T call(LatencyStats stats, Callable<T> call) throws Exception {
+        final long start = System.nanoTime();
+        try {
+            final T result = call.call();
+            if (recording) {
+                stats.record(start);
+            }
+            return result;
+        } catch (Exception e) {
+            if (recording) {
+                stats.error();
+            }
+            throw e;
+        }
+    }
+
+    private void report(long elapsedNanos) {
+        final List<LatencyStats> stats = Arrays.asList(createPublication, watermarkDocument, pollTicket, lifecycle);
+        final StringBuilder report = new StringBuilder(String.format("%nLoad test: %d users, %ds, %s threads%n", users,
+                TimeUnit.NANOSECONDS.toSeconds(elapsedNanos), VIRTUAL_THREADS ? "virtual" : "platform"));
+        report.append(LatencyStats.header()).append(System.lineSeparator());
+        stats.forEach(s -> report.append(s.report(elapsedNanos)).append(System.lineSeparator()));
+        log.info(report.toString());
+    }
+}
@@ -54,7 +54,7 @@ public class DataLoader implements ApplicationListener<ContextRefreshedEvent> {
                 .build();
         book2.setWatermark(Watermark.builder()
                 .publication(book2)
-                .property(generateWatermark(book2.getWatermarkProperties()))
+                .property(generateWatermark(book2))
                 .status(SUCCESS.getName())
                 .build());
 
@@ -82,7 +82,7 @@ public class DataLoader implements ApplicationListener<ContextRefreshedEvent> {
                 .build();
         journal1.setWatermark(Watermark.builder()
                 .publication(journal1)
-                .property(generateWatermark(journal1.getWatermarkProperties()))
+                .property(generateWatermark(journal1))
                 .status(SUCCESS.getName())
                 .build());
 
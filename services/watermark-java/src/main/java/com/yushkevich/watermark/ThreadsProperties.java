@@ -0,0 +1,15 @@
+package com.yushkevich.watermark;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "watermark.threads")
+@Getter
+@Setter
+public class ThreadsProperties {
+    private boolean virtual;
+    private int maxRequests = 10000;
+}
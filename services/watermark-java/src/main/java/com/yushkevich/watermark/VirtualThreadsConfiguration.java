@@ -0,0 +1,41 @@
+package com.yushkevich.watermark;
+
+import com.yushkevich.watermark.utils.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.embedded.EmbeddedServletContainerCustomizer;
+import org.springframework.boot.context.embedded.tomcat.TomcatEmbeddedServletContainerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Opt-in execution mode ({@code watermark.threads.virtual=true}, Java 21+): requests are handled by Tomcat on virtual
+ * threads, so threads blocked on JDBC or on watermark client don't limit number of concurrent requests.
+ * Request threads are not pooled, every request starts its own virtual thread and number of concurrently handled
+ * requests is bounded by semaphore ({@code watermark.threads.maxRequests}), request above it is rejected by Tomcat.
+ * Watermark client calls and watermark jobs are switched to virtual threads by their own executors.
+ * <p>
+ * Service stays on Spring Boot 1.5/Java 8 bytecode, virtual threads are used reflectively when it runs on Java 21+ (with
+ * {@code --add-opens} required by Spring 4 and Hibernate 5, see {@code loadTest} task).
+ */
+
+@Configuration
+@ConditionalOnProperty(name = "watermark.threads.virtual", havingValue = "true")
+@Slf4j
+public class VirtualThreadsConfiguration {
+
+    @Bean
+    public EmbeddedServletContainerCustomizer virtualThreadsContainerCustomizer(ThreadsProperties threadsProperties) {
+        return container -> {
+            if (container instanceof TomcatEmbeddedServletContainerFactory) {
+                ((TomcatEmbeddedServletContainerFactory) container).addConnectorCustomizers(connector -> {
+                    ((AbstractProtocol<?>) connector.getProtocolHandler())
+                            .setExecutor(VirtualThreads.newBoundedThreadPerTaskExecutor("http-virtual-",
+                                    threadsProperties.getMaxRequests(), 0));
+                    log.info("Requests are handled on virtual threads");
+                });
+            }
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.yushkevich.watermark.cache;
+
+import com.yushkevich.watermark.dto.TicketDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Cached ticket. Finished ticket never changes, so it is kept already serialized to JSON together with its ETag.
+ */
+
+@AllArgsConstructor
+@Getter
+@ToString(exclude = "json")
+public class CachedTicket {
+    private final TicketDTO ticket;
+    private final byte[] json;
+    private final String eTag;
+
+    public boolean isSerialized() {
+        return nonNull(json);
+    }
+}
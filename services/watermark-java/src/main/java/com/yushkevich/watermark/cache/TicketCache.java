@@ -0,0 +1,155 @@
+package com.yushkevich.watermark.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.yushkevich.watermark.dto.TicketDTO;
+import com.yushkevich.watermark.event.WatermarkStatusChangedEvent;
+import com.yushkevich.watermark.exception.WatermarkException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static java.util.Objects.isNull;
+
+/**
+ * Bounded (by size and time since write) cache of tickets, so polling of ticket status doesn't hit DB.
+ * Cache is filled write-through by {@link WatermarkStatusChangedEvent} which is published after every status change
+ * is committed, removed watermarks are evicted. Hit/miss/eviction counters are exposed as {@code ticket.cache.*} metrics.
+ * <p>
+ * Finished (SUCCESS/FAILED) tickets are stored serialized ({@link CachedTicket}), so they are served without mapping
+ * and serialization.
+ */
+
+@Component
+@Slf4j
+public class TicketCache implements PublicMetrics {
+
+    private final Cache<UUID, CachedTicket> tickets;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong serializedHits = new AtomicLong();
+    private final AtomicLong presentHits = new AtomicLong();
+    private final AtomicLong putMisses = new AtomicLong();
+
+    public TicketCache(TicketCacheProperties ticketCacheProperties, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.tickets = CacheBuilder.newBuilder()
+                .maximumSize(ticketCacheProperties.getMaximumSize())
+                .expireAfterWrite(ticketCacheProperties.getExpireAfterWriteInSeconds(), TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns cached ticket or loads it. Status change written while ticket is loading wins over loaded ticket.
+     *
+     * @param ticketId Id of ticket/watermark
+     * @param loader   Loads ticket from DB on cache miss
+     * @return Ticket
+     */
+    public TicketDTO get(UUID ticketId, Supplier<TicketDTO> loader) {
+        try {
+            return tickets.get(ticketId, () -> toCachedTicket(loader.get())).getTicket();
+        } catch (ExecutionException e) {
+            throw new WatermarkException(String.format("can't load ticket with id=%s", ticketId));
+        } catch (UncheckedExecutionException e) {
+            // loader exceptions (e.g. NotFoundException) are propagated as is
+            throwIfUnchecked(e.getCause());
+            throw e;
+        }
+    }
+
+    /**
+     * Returns ticket if it is cached, so cache hit can be served without switching to DB pool.
+     *
+     * @param ticketId Id of ticket/watermark
+     * @return Cached ticket
+     */
+    public Optional<TicketDTO> getIfPresent(UUID ticketId) {
+        // map view doesn't record stats, misses are recorded by subsequent get or putIfAbsent
+        final Optional<TicketDTO> ticket = Optional.ofNullable(tickets.asMap().get(ticketId))
+                .map(CachedTicket::getTicket);
+        ticket.ifPresent(cachedTicket -> presentHits.incrementAndGet());
+        return ticket;
+    }
+
+    /**
+     * Caches ticket loaded after {@link #getIfPresent(UUID)} missed (recorded as miss). Status change written while
+     * ticket was loading wins over loaded ticket.
+     *
+     * @param ticket Loaded ticket
+     */
+    public void putIfAbsent(TicketDTO ticket) {
+        putMisses.incrementAndGet();
+        tickets.asMap().putIfAbsent(ticket.getId(), toCachedTicket(ticket));
+    }
+
+    /**
+     * Returns serialized ticket if it is finished and cached.
+     *
+     * @param ticketId Id of ticket/watermark
+     * @return Serialized ticket
+     */
+    public Optional<CachedTicket> getSerialized(UUID ticketId) {
+        // map view doesn't record stats, misses are recorded by subsequent get
+        final Optional<CachedTicket> cachedTicket = Optional.ofNullable(tickets.asMap().get(ticketId))
+                .filter(CachedTicket::isSerialized);
+        cachedTicket.ifPresent(ticket -> serializedHits.incrementAndGet());
+        return cachedTicket;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(WatermarkStatusChangedEvent event) {
+        log.debug("::onStatusChanged {}", event);
+        if (isNull(event.getTicket())) {
+            tickets.invalidate(event.getTicketId());
+        } else {
+            tickets.put(event.getTicketId(), toCachedTicket(event.getTicket()));
+        }
+    }
+
+    private CachedTicket toCachedTicket(TicketDTO ticket) {
+        if (!ticket.getStatus().isFinished()) {
+            return new CachedTicket(ticket, null, null);
+        }
+
+        try {
+            final byte[] json = objectMapper.writeValueAsBytes(ticket);
+            return new CachedTicket(ticket, json, "\"0" + DigestUtils.md5DigestAsHex(json) + "\"");
+        } catch (JsonProcessingException e) {
+            log.warn("Failure serialize {}", ticket, e);
+            return new CachedTicket(ticket, null, null);
+        }
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        final CacheStats stats = tickets.stats();
+        final long hits = stats.hitCount() + presentHits.get();
+        final long misses = stats.missCount() + putMisses.get();
+        final long requests = hits + misses;
+        return Arrays.asList(
+                new Metric<>("ticket.cache.size", tickets.size()),
+                new Metric<>("ticket.cache.hit", hits),
+                new Metric<>("ticket.cache.serializedHit", serializedHits.get()),
+                new Metric<>("ticket.cache.miss", misses),
+                new Metric<>("ticket.cache.eviction", stats.evictionCount()),
+                new Metric<>("ticket.cache.hitRatio", requests == 0 ? 1.0 : (double) hits / requests));
+    }
+}
@@ -0,0 +1,15 @@
+package com.yushkevich.watermark.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "watermark.ticket.cache")
+@Getter
+@Setter
+public class TicketCacheProperties {
+    private long maximumSize;
+    private long expireAfterWriteInSeconds;
+}
@@ -1,36 +1,71 @@
 package com.yushkevich.watermark.client;
 
+import com.yushkevich.watermark.client.engine.WatermarkEngine;
+import com.yushkevich.watermark.client.engine.WatermarkRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
 
+import static com.yushkevich.watermark.utils.WatermarkGenerator.appendWatermark;
 import static com.yushkevich.watermark.utils.WatermarkGenerator.generateWatermark;
 
 /**
  * Service simulating watermark generation. Assuming that all slow things happens here :). For simulation added delay property.
+ * Default {@link WatermarkEngine}, watermark depends on watermark properties only.
  */
 
-@Service
+@Service(WatermarkClient.NAME)
 @Slf4j
-public class WatermarkClient {
+public class WatermarkClient implements WatermarkEngine {
+
+    public static final String NAME = "simulated";
 
     @Value("${watermark.client.delayInMilliseconds}")
     private int watermarkTimeOut;
 
-    public String createWatermark(List<String> watermarkProperties) {
-        log.debug("::STARTING watermark generation for {}", watermarkProperties);
+    @Override
+    public String createWatermark(WatermarkRequest request) {
+        log.debug("::STARTING watermark generation for {}", request.getWatermarkProperties());
+
+        delay();
+
+        final String watermark = generateWatermark(request.getWatermarkProperties());
+        log.debug("::GENERATED watermark {}", watermark);
+        return watermark;
+    }
+
+    /**
+     * Generates watermarks for several documents in one round trip, so delay is paid once per batch.
+     *
+     * @param requests Watermark requests per ticket/watermark id
+     * @return Watermark property per ticket/watermark id (in the same order as requested)
+     */
+    @Override
+    public Map<UUID, String> createWatermarks(Map<UUID, WatermarkRequest> requests) {
+        log.debug("::STARTING watermark generation for batch of {}", requests.size());
 
+        delay();
+
+        final Map<UUID, String> watermarks = new LinkedHashMap<>(requests.size() * 4 / 3 + 1);
+        final StringBuilder watermark = new StringBuilder(); // reused for the whole batch, grows to the longest watermark
+        requests.forEach((id, request) -> {
+            watermark.setLength(0);
+            watermarks.put(id, appendWatermark(watermark, request.getWatermarkProperties()).toString());
+        });
+        log.debug("::GENERATED {} watermarks", watermarks.size());
+        return watermarks;
+    }
+
+    private void delay() {
         try {
             Thread.sleep(watermarkTimeOut);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             e.printStackTrace();
         }
-
-        final String watermark = generateWatermark(watermarkProperties);
-        log.debug("::GENERATED watermark {}", watermark);
-        return watermark;
     }
 }
@@ -0,0 +1,25 @@
+package com.yushkevich.watermark.client;
+
+import com.yushkevich.watermark.ThreadsProperties;
+import com.yushkevich.watermark.utils.BoundedExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dedicated bounded pool for blocking calls to {@link WatermarkClient}, so slow watermark generation doesn't occupy
+ * shared rx schedulers. Pool size and queue capacity are configured by
+ * {@code hystrix.command.watermark.executorPoolSize/executorQueueCapacity}, call submitted to saturated pool is rejected
+ * immediately (command falls back). Pool state is exposed as {@code watermark.client.executor.*} metrics.
+ * <p>
+ * With {@code watermark.threads.virtual} pool workers are virtual threads, so sleeping client call doesn't hold
+ * platform thread and pool can be sized by number of concurrent calls instead of number of CPUs/memory.
+ */
+
+@Component
+public class WatermarkClientExecutor extends BoundedExecutor {
+
+    public WatermarkClientExecutor(WatermarkHystrixCommandProperties watermarkHystrixCommandProperties,
+                                   ThreadsProperties threadsProperties) {
+        super("watermark.client.executor", watermarkHystrixCommandProperties.getExecutorPoolSize(),
+                watermarkHystrixCommandProperties.getExecutorQueueCapacity(), threadsProperties.isVirtual());
+    }
+}
@@ -12,4 +12,9 @@ import org.springframework.stereotype.Component;
 public class WatermarkHystrixCommandProperties {
     private int timeoutInMilliseconds;
     private String groupKey;
+    private String collapserKey;
+    private int collapserTimerDelayInMilliseconds;
+    private int collapserMaxRequestsInBatch;
+    private int executorPoolSize;
+    private int executorQueueCapacity;
 }
@@ -0,0 +1,208 @@
+package com.yushkevich.watermark.client;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Content-addressed cache of generated watermarks. Output of cacheable watermark engine (e.g. {@link WatermarkClient})
+ * depends on watermark properties only, so watermark is cached by SHA-256 of engine name and properties and identical
+ * documents (e.g. re-watermarked unchanged publication) are finished without client call. Engines configured for
+ * different contents never share cached watermarks. Cache is bounded by {@code watermark.client.cache.maximumSize}
+ * (least recently used entries are evicted, 0 disables cache). Hit/miss/eviction counters are exposed as
+ * {@code watermark.client.cache.*} metrics.
+ * <p>
+ * With {@code watermark.client.cache.journalFile} every cached watermark is appended to journal, which is loaded
+ * on start up, so cache survives restart. Journal is compacted to cached entries on start up and whenever it holds
+ * {@value #JOURNAL_COMPACTION_FACTOR} times more entries than cache can hold, so its size stays bounded.
+ */
+
+@Component
+@Slf4j
+public class WatermarkResultCache implements PublicMetrics, DisposableBean {
+
+    static final int JOURNAL_COMPACTION_FACTOR = 2;
+
+    private final Cache<String, String> watermarks;
+    private final long maximumJournalEntries;
+    private Path journalFile;
+    private BufferedWriter journal;
+    private long journalEntries;
+
+    public WatermarkResultCache(WatermarkResultCacheProperties watermarkResultCacheProperties) {
+        this.watermarks = CacheBuilder.newBuilder()
+                .maximumSize(watermarkResultCacheProperties.getMaximumSize())
+                .recordStats()
+                .build();
+        this.maximumJournalEntries = watermarkResultCacheProperties.getMaximumSize() * JOURNAL_COMPACTION_FACTOR;
+        final String journalFile = watermarkResultCacheProperties.getJournalFile();
+        if (nonNull(journalFile) && !journalFile.isEmpty() && watermarkResultCacheProperties.getMaximumSize() > 0) {
+            openJournal(Paths.get(journalFile));
+        }
+    }
+
+    /**
+     * @param engineName          Name of engine generating watermark
+     * @param watermarkProperties Watermark properties of document
+     * @return Cached watermark property
+     */
+    public Optional<String> get(String engineName, List<String> watermarkProperties) {
+        return Optional.ofNullable(watermarks.getIfPresent(key(engineName, watermarkProperties)));
+    }
+
+    /**
+     * Caches successfully generated watermark, empty watermark(failure) is not cached.
+     *
+     * @param engineName          Name of engine generated watermark
+     * @param watermarkProperties Watermark properties of document
+     * @param watermark           Generated watermark property
+     */
+    public void put(String engineName, List<String> watermarkProperties, String watermark) {
+        if (isNull(watermark) || watermark.isEmpty()) {
+            return;
+        }
+
+        final String key = key(engineName, watermarkProperties);
+        watermarks.put(key, watermark);
+        append(key, watermark);
+    }
+
+    /**
+     * Engine name and properties are length-prefixed, so different engines and property lists never have the same
+     * encoding.
+     */
+    static String key(String engineName, List<String> watermarkProperties) {
+        final Hasher hasher = Hashing.sha256().newHasher();
+        hasher.putInt(engineName.length()).putString(engineName, StandardCharsets.UTF_8);
+        hasher.putInt(watermarkProperties.size());
+        for (String property : watermarkProperties) {
+            if (isNull(property)) {
+                hasher.putInt(-1);
+            } else {
+                hasher.putInt(property.length()).putString(property, StandardCharsets.UTF_8);
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    private void openJournal(Path journalFile) {
+        try {
+            if (Files.exists(journalFile)) {
+                for (String line : Files.readAllLines(journalFile, StandardCharsets.UTF_8)) {
+                    final int separator = line.indexOf('\t');
+                    if (separator > 0) {
+                        watermarks.put(line.substring(0, separator), new String(
+                                Base64.getDecoder().decode(line.substring(separator + 1)), StandardCharsets.UTF_8));
+                    }
+                }
+            }
+
+            this.journalFile = journalFile;
+            compactJournal();
+            log.info("::openJournal loaded {} watermarks from {}", watermarks.size(), journalFile);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Failure open journal {}, watermarks are cached in memory only", journalFile, e);
+            journal = null;
+        }
+    }
+
+    /**
+     * Rewrites journal with cached entries only and reopens it for appending.
+     */
+    private synchronized void compactJournal() throws IOException {
+        if (nonNull(journal)) {
+            journal.close();
+            journal = null;
+        }
+
+        final Path compacted = Paths.get(journalFile + ".tmp");
+        long entries = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, String> entry : watermarks.asMap().entrySet()) {
+                writeEntry(writer, entry.getKey(), entry.getValue());
+                entries++;
+            }
+        }
+        Files.move(compacted, journalFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        journal = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        journalEntries = entries;
+        log.debug("::compactJournal {} watermarks", entries);
+    }
+
+    private synchronized void append(String key, String watermark) {
+        if (isNull(journal)) {
+            return;
+        }
+
+        try {
+            writeEntry(journal, key, watermark);
+            journal.flush();
+            if (++journalEntries > maximumJournalEntries) {
+                compactJournal();
+            }
+        } catch (IOException e) {
+            log.warn("Failure append watermark to journal, watermarks are cached in memory only", e);
+            closeJournal();
+        }
+    }
+
+    private static void writeEntry(BufferedWriter writer, String key, String watermark) throws IOException {
+        writer.write(key);
+        writer.write('\t');
+        writer.write(Base64.getEncoder().encodeToString(watermark.getBytes(StandardCharsets.UTF_8)));
+        writer.newLine();
+    }
+
+    private synchronized void closeJournal() {
+        if (nonNull(journal)) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                log.warn("Failure close journal", e);
+            }
+            journal = null;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        closeJournal();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        final CacheStats stats = watermarks.stats();
+        return Arrays.asList(
+                new Metric<>("watermark.client.cache.size", watermarks.size()),
+                new Metric<>("watermark.client.cache.hit", stats.hitCount()),
+                new Metric<>("watermark.client.cache.miss", stats.missCount()),
+                new Metric<>("watermark.client.cache.eviction", stats.evictionCount()),
+                new Metric<>("watermark.client.cache.hitRatio", stats.hitRate()));
+    }
+}
@@ -0,0 +1,15 @@
+package com.yushkevich.watermark.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "watermark.client.cache")
+@Getter
+@Setter
+public class WatermarkResultCacheProperties {
+    private long maximumSize;
+    private String journalFile;
+}
@@ -0,0 +1,66 @@
+package com.yushkevich.watermark.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+import rx.Observable;
+import rx.subjects.AsyncSubject;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Deduplication of concurrent watermark generations (single flight): while watermark for some properties is generated
+ * by an engine, requests with equal properties for the same engine don't start their own generation, but subscribe to
+ * the one in flight and get its result (or its failure). Number of executed and shared(saved) generations is exposed as
+ * {@code watermark.client.singleFlight.*} metrics.
+ */
+
+@Component
+@Slf4j
+public class WatermarkSingleFlight implements PublicMetrics {
+
+    private final ConcurrentMap<String, AsyncSubject<String>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+
+    /**
+     * @param engineName          Name of engine generating watermark
+     * @param watermarkProperties Watermark properties of document
+     * @param generator           Watermark generation, subscribed unless generation for equal engine and properties
+     *                            is in flight
+     * @return Observable watermark property, generation is started eagerly
+     */
+    public Observable<String> generate(String engineName, List<String> watermarkProperties,
+                                       Supplier<Observable<String>> generator) {
+        final String key = WatermarkResultCache.key(engineName, watermarkProperties);
+        final AsyncSubject<String> generation = AsyncSubject.create();
+        final AsyncSubject<String> existingGeneration = inFlight.putIfAbsent(key, generation);
+        if (existingGeneration != null) {
+            shared.incrementAndGet();
+            log.debug("::generate joins generation in flight of {} for {}", engineName, watermarkProperties);
+            return existingGeneration.asObservable();
+        }
+
+        executed.incrementAndGet();
+        // removed before result is emitted, subscribers of the result may start next generation for the same key
+        Observable.defer(generator::get)
+                .doOnTerminate(() -> inFlight.remove(key, generation))
+                .subscribe(generation);
+        return generation.asObservable();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        return Arrays.asList(
+                new Metric<>("watermark.client.singleFlight.executed", executed.get()),
+                new Metric<>("watermark.client.singleFlight.shared", shared.get()),
+                new Metric<>("watermark.client.singleFlight.inFlight", inFlight.size()));
+    }
+}
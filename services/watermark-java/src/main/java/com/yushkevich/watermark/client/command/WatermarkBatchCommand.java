@@ -0,0 +1,68 @@
+package com.yushkevich.watermark.client.command;
+
+import com.google.common.collect.Maps;
+import com.yushkevich.watermark.client.WatermarkClientExecutor;
+import com.yushkevich.watermark.client.engine.WatermarkEngine;
+import com.yushkevich.watermark.client.engine.WatermarkRequest;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import rx.Observable;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Hystrix command generating watermarks for a batch of documents with a single call to {@link WatermarkEngine}.
+ * Emits one (watermark id -> watermark property) entry per requested document.
+ */
+
+@Slf4j
+@Getter
+public class WatermarkBatchCommand extends BaseCommand<Map.Entry<UUID, String>> {
+
+    private final Map<UUID, WatermarkRequest> watermarkRequests;
+    private final WatermarkEngine watermarkEngine;
+    private final WatermarkClientExecutor watermarkClientExecutor;
+
+    @Builder
+    public WatermarkBatchCommand(String groupKey, int timeout, String debugMessage,
+                                 Map<UUID, WatermarkRequest> watermarkRequests, WatermarkEngine watermarkEngine,
+                                 WatermarkClientExecutor watermarkClientExecutor) {
+        super(groupKey, timeout, debugMessage);
+        this.watermarkRequests = watermarkRequests;
+        this.watermarkEngine = watermarkEngine;
+        this.watermarkClientExecutor = watermarkClientExecutor;
+    }
+
+    /**
+     * Executes time expensive batch call to {@link WatermarkEngine} in dedicated pool({@link WatermarkClientExecutor}).
+     *
+     * @return Observable of watermark property per watermark id
+     */
+    @Override
+    protected Observable<Map.Entry<UUID, String>> construct() {
+        log.debug("::constructed observable for batch of {}", watermarkRequests.size());
+        return watermarkClientExecutor.execute(() -> watermarkEngine.createWatermarks(watermarkRequests))
+                .doOnError(ex -> log.error("Failure get watermarks for batch {}", watermarkRequests.keySet()))
+                .flatMapIterable(Map::entrySet);
+    }
+
+    /**
+     * Whole batch fails together: every document receives empty watermark property (failed generation).
+     */
+    @Override
+    protected Observable<Map.Entry<UUID, String>> resumeWithFallback() {
+        log.warn("::resumeWithFallback");
+        return Observable.create(subscriber -> {
+            try {
+                handleErrors();
+                watermarkRequests.keySet().forEach(id -> subscriber.onNext(Maps.immutableEntry(id, "")));
+                subscriber.onCompleted();
+            } catch (Exception ex) {
+                log.error("Failure get watermarks in fallback for batch {}", watermarkRequests.keySet());
+                subscriber.onError(ex);
+            }
+        });
+    }
+}
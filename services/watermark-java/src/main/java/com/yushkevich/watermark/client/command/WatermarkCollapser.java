@@ -0,0 +1,100 @@
+package com.yushkevich.watermark.client.command;
+
+import com.google.common.collect.Maps;
+import com.netflix.hystrix.HystrixCollapser.CollapsedRequest;
+import com.netflix.hystrix.HystrixCollapserKey;
+import com.netflix.hystrix.HystrixCollapserProperties;
+import com.netflix.hystrix.HystrixObservableCollapser;
+import com.netflix.hystrix.HystrixObservableCommand;
+import com.yushkevich.watermark.client.WatermarkClientExecutor;
+import com.yushkevich.watermark.client.engine.WatermarkEngine;
+import com.yushkevich.watermark.client.engine.WatermarkRequest;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import rx.functions.Func1;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Hystrix collapser. Gathers watermark requests issued within {@code timerDelay} (or until {@code maxRequestsInBatch}
+ * is reached) from any thread and executes them as one {@link WatermarkBatchCommand}.
+ * Every collapsed request receives the watermark property generated for its own watermark id.
+ * <p>
+ * Collapser is global per {@code collapserKey}: Hystrix creates batches with the instance which registered the key
+ * first, so group key, timeout, engine and executor of that instance are used for all subsequent requests with the same key.
+ */
+
+@Slf4j
+public class WatermarkCollapser
+        extends HystrixObservableCollapser<UUID, Map.Entry<UUID, String>, String, Map.Entry<UUID, WatermarkRequest>> {
+
+    private final String groupKey;
+    private final int timeout;
+    private final Map.Entry<UUID, WatermarkRequest> watermarkRequest;
+    private final WatermarkEngine watermarkEngine;
+    private final WatermarkClientExecutor watermarkClientExecutor;
+
+    @Builder
+    public WatermarkCollapser(String collapserKey, String groupKey, int timeout, int timerDelay, int maxRequestsInBatch,
+                              UUID watermarkId, WatermarkRequest watermarkRequest, WatermarkEngine watermarkEngine,
+                              WatermarkClientExecutor watermarkClientExecutor) {
+        super(Setter.withCollapserKey(HystrixCollapserKey.Factory.asKey(collapserKey))
+                .andScope(Scope.GLOBAL)
+                .andCollapserPropertiesDefaults(HystrixCollapserProperties.Setter()
+                        .withTimerDelayInMilliseconds(timerDelay)
+                        .withMaxRequestsInBatch(maxRequestsInBatch))
+        );
+        this.groupKey = groupKey;
+        this.timeout = timeout;
+        this.watermarkRequest = Maps.immutableEntry(watermarkId, watermarkRequest);
+        this.watermarkEngine = watermarkEngine;
+        this.watermarkClientExecutor = watermarkClientExecutor;
+    }
+
+    @Override
+    public Map.Entry<UUID, WatermarkRequest> getRequestArgument() {
+        return watermarkRequest;
+    }
+
+    @Override
+    protected HystrixObservableCommand<Map.Entry<UUID, String>> createCommand(
+            Collection<CollapsedRequest<String, Map.Entry<UUID, WatermarkRequest>>> requests) {
+        log.debug("::createCommand for batch of {}", requests.size());
+
+        final Map<UUID, WatermarkRequest> watermarkRequests = new LinkedHashMap<>(requests.size() * 4 / 3 + 1);
+        requests.forEach(request -> watermarkRequests.put(request.getArgument().getKey(), request.getArgument().getValue()));
+
+        return WatermarkBatchCommand.builder()
+                .groupKey(groupKey)
+                .debugMessage("watermarkBatch")
+                .timeout(timeout)
+                .watermarkRequests(watermarkRequests)
+                .watermarkEngine(watermarkEngine)
+                .watermarkClientExecutor(watermarkClientExecutor)
+                .build();
+    }
+
+    @Override
+    protected Func1<Map.Entry<UUID, String>, UUID> getBatchReturnTypeKeySelector() {
+        return Map.Entry::getKey;
+    }
+
+    @Override
+    protected Func1<Map.Entry<UUID, WatermarkRequest>, UUID> getRequestArgumentKeySelector() {
+        return Map.Entry::getKey;
+    }
+
+    @Override
+    protected void onMissingResponse(CollapsedRequest<String, Map.Entry<UUID, WatermarkRequest>> request) {
+        log.warn("::onMissingResponse for {}", request.getArgument().getKey());
+        request.setResponse("");
+    }
+
+    @Override
+    protected Func1<Map.Entry<UUID, String>, String> getBatchReturnTypeToResponseTypeMapper() {
+        return Map.Entry::getValue;
+    }
+}
@@ -0,0 +1,111 @@
+package com.yushkevich.watermark.client.engine;
+
+import com.yushkevich.watermark.document.DocumentStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.yushkevich.watermark.utils.WatermarkGenerator.encodeWatermark;
+import static com.yushkevich.watermark.utils.WatermarkGenerator.generateWatermark;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Engine stamping watermark into document of publication stored in {@link DocumentStore}: watermarked copy is original
+ * document between two stamp lines {@code %Watermark: <watermark>} ('%' starts comment in PDF, plain line in text).
+ * Document is streamed file to file by {@link FileChannel#transferTo}, so it's never loaded into memory.
+ * Publication without stored document gets watermark property only. Counters are exposed as
+ * {@code watermark.engine.stamping.*} metrics.
+ */
+
+@Component(StampingWatermarkEngine.NAME)
+@Slf4j
+public class StampingWatermarkEngine implements WatermarkEngine, PublicMetrics {
+
+    public static final String NAME = "stamping";
+
+    private static final String STAMP_PREFIX = "%Watermark: ";
+
+    private final DocumentStore documentStore;
+
+    private final AtomicLong documents = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public StampingWatermarkEngine(DocumentStore documentStore) {
+        this.documentStore = documentStore;
+    }
+
+    @Override
+    public String createWatermark(WatermarkRequest request) {
+        final String watermark = generateWatermark(request.getWatermarkProperties());
+        final Optional<Path> document = documentStore.findDocument(request.getPublicationId());
+        if (!document.isPresent()) {
+            skipped.incrementAndGet();
+            log.debug("::createWatermark no document to stamp for publication {}", request.getPublicationId());
+            return watermark;
+        }
+
+        try {
+            final long size = stamp(request.getPublicationId(), document.get(), watermark);
+            documents.incrementAndGet();
+            bytes.addAndGet(size);
+            log.debug("::createWatermark stamped {} bytes for publication {}", size, request.getPublicationId());
+            return watermark;
+        } catch (IOException e) {
+            failed.incrementAndGet();
+            log.error("Failure stamp document of publication {}", request.getPublicationId(), e);
+            throw new UncheckedIOException("Failure stamp document of publication " + request.getPublicationId(), e);
+        }
+    }
+
+    /**
+     * Every document is stamped, so watermark can't be taken from cache or shared with other documents.
+     */
+    @Override
+    public boolean isCacheable() {
+        return false;
+    }
+
+    private long stamp(Long publicationId, Path document, String watermark) throws IOException {
+        final ByteBuffer footer = stampLine(watermark);
+        final ByteBuffer header = footer.duplicate();
+        header.position(1); // without leading line break
+        return documentStore.storeWatermarked(publicationId, target -> {
+            try (FileChannel source = FileChannel.open(document, READ)) {
+                return DocumentStore.write(target, header)
+                        + DocumentStore.transfer(source, target)
+                        + DocumentStore.write(target, footer);
+            }
+        });
+    }
+
+    private static ByteBuffer stampLine(String watermark) {
+        final StringBuilder line = new StringBuilder(STAMP_PREFIX.length() + watermark.length() + 2)
+                .append('\n').append(STAMP_PREFIX).append(watermark).append('\n');
+        final ByteBuffer buffer = ByteBuffer.allocate(line.length() * 3);
+        encodeWatermark(line, buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        return Arrays.asList(
+                new Metric<>("watermark.engine.stamping.documents", documents.get()),
+                new Metric<>("watermark.engine.stamping.bytes", bytes.get()),
+                new Metric<>("watermark.engine.stamping.skipped", skipped.get()),
+                new Metric<>("watermark.engine.stamping.failed", failed.get()));
+    }
+}
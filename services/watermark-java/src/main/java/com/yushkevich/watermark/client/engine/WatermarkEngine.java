@@ -0,0 +1,46 @@
+package com.yushkevich.watermark.client.engine;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * SPI of watermark generation, called by hystrix commands. Engine is selected per content by {@link WatermarkEngines},
+ * engines are registered as beans and referenced by bean name.
+ */
+
+public interface WatermarkEngine {
+
+    /**
+     * @param request Watermark request of document
+     * @return Watermark property
+     */
+    String createWatermark(WatermarkRequest request);
+
+    /**
+     * Generates watermarks for several documents, engines with round trip per call should override it.
+     * Failure of one document doesn't fail the others: its watermark property is empty (failed generation).
+     *
+     * @param requests Watermark requests per ticket/watermark id
+     * @return Watermark property per ticket/watermark id (in the same order as requested)
+     */
+    default Map<UUID, String> createWatermarks(Map<UUID, WatermarkRequest> requests) {
+        final Map<UUID, String> watermarks = new LinkedHashMap<>(requests.size() * 4 / 3 + 1);
+        requests.forEach((id, request) -> {
+            try {
+                watermarks.put(id, createWatermark(request));
+            } catch (RuntimeException e) {
+                watermarks.put(id, "");
+            }
+        });
+        return watermarks;
+    }
+
+    /**
+     * @return true if watermark depends on watermark properties only, so it can be cached and shared between documents
+     * with equal properties. Engines with side effect per document (e.g. stamping of document) return false.
+     */
+    default boolean isCacheable() {
+        return true;
+    }
+}
@@ -0,0 +1,18 @@
+package com.yushkevich.watermark.client.engine;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "watermark.engine")
+@Getter
+@Setter
+public class WatermarkEngineProperties {
+    private String name;
+    private Map<String, String> content = new HashMap<>();
+}
@@ -0,0 +1,50 @@
+package com.yushkevich.watermark.client.engine;
+
+import com.yushkevich.watermark.domain.Content;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Registry of {@link WatermarkEngine} per {@link Content}: engine bean name is taken from
+ * {@code watermark.engine.content.<content>} property or {@code watermark.engine.name} for all other contents.
+ * Unknown engine name fails start up.
+ */
+
+@Component
+@Slf4j
+public class WatermarkEngines {
+
+    private final Map<Content, WatermarkEngine> engines = new EnumMap<>(Content.class);
+    private final Map<Content, String> names = new EnumMap<>(Content.class);
+
+    public WatermarkEngines(Map<String, WatermarkEngine> enginesByName, WatermarkEngineProperties properties) {
+        for (Content content : Content.values()) {
+            final String name = properties.getContent().getOrDefault(content.getName(), properties.getName());
+            final WatermarkEngine engine = enginesByName.get(name);
+            if (isNull(engine)) {
+                throw new IllegalStateException(String.format("Unknown watermark engine '%s' for %s, available: %s",
+                        name, content.getName(), enginesByName.keySet()));
+            }
+            engines.put(content, engine);
+            names.put(content, name);
+            log.info("Watermark engine for {}: {}", content.getName(), name);
+        }
+    }
+
+    public WatermarkEngine get(Content content) {
+        return engines.get(content);
+    }
+
+    /**
+     * @param content Content of publication
+     * @return Bean name of engine for content, identifies engine in watermark cache keys
+     */
+    public String getName(Content content) {
+        return names.get(content);
+    }
+}
@@ -0,0 +1,17 @@
+package com.yushkevich.watermark.client.engine;
+
+import com.yushkevich.watermark.domain.Content;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Watermark request of one document for {@link WatermarkEngine}.
+ */
+
+@Value
+public class WatermarkRequest {
+    private final Long publicationId;
+    private final Content content;
+    private final List<String> watermarkProperties;
+}
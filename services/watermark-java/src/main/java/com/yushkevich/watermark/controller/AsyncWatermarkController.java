@@ -0,0 +1,58 @@
+package com.yushkevich.watermark.controller;
+
+import com.yushkevich.watermark.dto.PublicationRequestDTO;
+import com.yushkevich.watermark.dto.TicketDTO;
+import com.yushkevich.watermark.service.WatermarkService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.UUID;
+
+/**
+ * Variant of {@link WatermarkController} for large number of concurrent polls. Request thread is released right after
+ * subscription, tickets missing in cache are read in batches by one DB thread.
+ * <p>
+ * It is not a reactive (R2DBC/WebFlux) stack: Spring Boot 1.5 has neither, so few threads per many polls are achieved
+ * by async servlet requests ({@link DeferredResult}) and batched plain JDBC reads
+ * ({@link com.yushkevich.watermark.repository.TicketJdbcRepository}).
+ */
+
+@RestController
+@RequestMapping("/api/v2/watermark")
+@AllArgsConstructor
+@Slf4j
+@Api("Async operations for watermarks with batched polling")
+public class AsyncWatermarkController {
+
+    private final WatermarkService watermarkService;
+
+    @RequestMapping(method = RequestMethod.POST)
+    @ApiOperation(value = "For a given content document returns a ticket UUID.")
+    public DeferredResult<UUID> watermarkDocument(@Validated @RequestBody PublicationRequestDTO request) {
+        log.debug("::watermarkDocument {}", request);
+
+        DeferredResult<UUID> deferredResult = new DeferredResult<>();
+        watermarkService.watermarkDocument(request.getPublicationId(), request.getContent())
+                .subscribe(deferredResult::setResult, deferredResult::setErrorResult);
+
+        return deferredResult;
+    }
+
+    @RequestMapping(value = "/{ticket_id}", method = RequestMethod.GET, params = {"ticket_id!="})
+    @ApiOperation(value = "Endpoint to poll the status of watermark processing. Concurrent polls of tickets which are " +
+            "not cached are read from DB together.")
+    public DeferredResult<TicketDTO> getTicketById(@PathVariable("ticket_id") UUID ticketId) {
+        log.debug("::getTicketById {}", ticketId);
+
+        DeferredResult<TicketDTO> deferredResult = new DeferredResult<>();
+        watermarkService.pollWatermarkStatusInBatch(ticketId)
+                .subscribe(deferredResult::setResult, deferredResult::setErrorResult);
+
+        return deferredResult;
+    }
+}
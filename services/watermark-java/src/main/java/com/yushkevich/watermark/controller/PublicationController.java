@@ -1,10 +1,19 @@
 package com.yushkevich.watermark.controller;
 
+import com.yushkevich.watermark.document.DocumentStore;
 import com.yushkevich.watermark.domain.Content;
 import com.yushkevich.watermark.domain.Publication;
+import com.yushkevich.watermark.dto.CursorPageDTO;
+import com.yushkevich.watermark.dto.ImportResultDTO;
 import com.yushkevich.watermark.dto.PageDTO;
 import com.yushkevich.watermark.dto.PublicationDTO;
 import com.yushkevich.watermark.dto.PublicationRequestDTO;
+import com.yushkevich.watermark.exception.BadRequestException;
+import com.yushkevich.watermark.exception.NotFoundException;
+import com.yushkevich.watermark.exporter.PublicationExportFormat;
+import com.yushkevich.watermark.exporter.PublicationExporter;
+import com.yushkevich.watermark.importer.PublicationImporter;
+import com.yushkevich.watermark.importer.PublicationRecordFormat;
 import com.yushkevich.watermark.service.PublicationService;
 import com.yushkevich.watermark.validation.PublicationDTOValidator;
 import io.swagger.annotations.Api;
@@ -14,12 +23,30 @@ import io.swagger.annotations.ApiOperation;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static com.yushkevich.watermark.utils.CursorCodec.decode;
 import static com.yushkevich.watermark.utils.mapper.PublicationMapper.*;
+import static java.util.Objects.nonNull;
 
 @RestController
 @RequestMapping("/api/v1/publication")
@@ -28,8 +55,15 @@ import static com.yushkevich.watermark.utils.mapper.PublicationMapper.*;
 @Api("Sync CRUD operations for book and journals")
 public class PublicationController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final String CSV_VALUE = "text/csv";
+
     private final PublicationService publicationService;
     private final PublicationDTOValidator validator;
+    private final PublicationImporter publicationImporter;
+    private final PublicationExporter publicationExporter;
+    private final DocumentStore documentStore;
 
     @InitBinder("publicationDTO")
     private void initBinder(WebDataBinder binder) {
@@ -47,6 +81,49 @@ public class PublicationController {
         return buildPublicationDTO(publication);
     }
 
+    @RequestMapping(path = "/import", method = RequestMethod.POST, consumes = NDJSON_VALUE)
+    @ApiOperation(value = "Imports publications, one publication(JSON) per line. Invalid lines are reported and skipped.")
+    public ImportResultDTO importPublicationsFromNdjson(InputStream body) throws IOException {
+        log.debug("::importPublicationsFromNdjson");
+
+        return publicationImporter.importPublications(reader(body), PublicationRecordFormat.NDJSON);
+    }
+
+    @RequestMapping(path = "/import", method = RequestMethod.POST, consumes = CSV_VALUE)
+    @ApiOperation(value = "Imports publications, one publication per line in order " + PublicationRecordFormat.CSV_HEADER +
+            " or in order of header line (e.g. CSV export, id, watermark and status are ignored). Invalid lines are " +
+            "reported and skipped.")
+    public ImportResultDTO importPublicationsFromCsv(InputStream body) throws IOException {
+        log.debug("::importPublicationsFromCsv");
+
+        return publicationImporter.importPublications(reader(body), PublicationRecordFormat.CSV);
+    }
+
+    @RequestMapping(path = "/export", method = RequestMethod.GET)
+    @ApiOperation(value = "Exports publications with watermarks ordered by id, one publication per line(NDJSON or " +
+            "CSV with header " + PublicationExportFormat.CSV_HEADER + "). All publications are exported if content " +
+            "is absent, response is gzipped if client accepts gzip encoding.")
+    public void exportPublications(@RequestParam(required = false) Content content,
+                                   @RequestParam(defaultValue = "NDJSON") PublicationExportFormat format,
+                                   @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                           String acceptEncoding,
+                                   HttpServletResponse response) throws IOException {
+        log.debug("::exportPublications {} with {} content", format, content);
+
+        final boolean gzip = nonNull(acceptEncoding) && acceptEncoding.contains("gzip");
+        response.setContentType(format.getMediaType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        final OutputStream body = gzip ? new GZIPOutputStream(response.getOutputStream()) : response.getOutputStream();
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8));
+        publicationExporter.exportPublications(content, format, writer);
+        // finishes gzip stream, response stream is closed by container
+        writer.close();
+    }
+
     @RequestMapping(path = "/list", method = RequestMethod.GET, params = {"content!="})
     @ApiOperation(value = "Fetches list of publication per page.")
     @ApiImplicitParams({
@@ -65,6 +142,23 @@ public class PublicationController {
         return buildPagePublicationDTO(publicationService.findAllByPage(pageable, content));
     }
 
+    @RequestMapping(path = "/list", method = RequestMethod.GET, params = {"content!=", "cursor"})
+    @ApiOperation(value = "Fetches list of publication after cursor(keyset pagination) ordered by id. Empty cursor " +
+            "starts from the beginning, next cursor is absent on the last page. Total number of publications is " +
+            "counted only on request.")
+    public CursorPageDTO<PublicationDTO> listPublicationsByCursor(@RequestParam Content content,
+                                                                  @RequestParam String cursor,
+                                                                  @RequestParam(defaultValue = "20") int size,
+                                                                  @RequestParam(defaultValue = "false") boolean count) {
+        log.debug("::listPublicationsByCursor {} after '{}' with {} content", size, cursor, content);
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new BadRequestException(String.format("Size should be between 1 and %s", MAX_CURSOR_PAGE_SIZE));
+        }
+
+        return buildCursorPagePublicationDTO(publicationService.findAllAfter(decode(cursor), size, content),
+                count ? publicationService.count(content) : null);
+    }
+
     @RequestMapping(path = "/{publication_id}", method = RequestMethod.GET, params = {"content!="})
     @ApiOperation(value = "Finds publication by id.")
     public PublicationDTO getPublicationById(@PathVariable("publication_id") Long id, @RequestParam Content content) {
@@ -73,6 +167,32 @@ public class PublicationController {
         return buildPublicationDTO(publicationService.find(id, content));
     }
 
+    @RequestMapping(path = "/{publication_id}/document", method = RequestMethod.PUT, params = {"content!="})
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @ApiOperation(value = "Stores document of publication (any bytes, e.g. text or PDF), document is stamped with " +
+            "watermark by 'stamping' watermark engine.")
+    public void storeDocument(@PathVariable("publication_id") Long id, @RequestParam Content content,
+                              InputStream body) throws IOException {
+        log.debug("::storeDocument {} with {} content", id, content);
+
+        publicationService.find(id, content);
+        documentStore.store(id, Channels.newChannel(body));
+    }
+
+    @RequestMapping(path = "/{publication_id}/document", method = RequestMethod.GET, params = {"content!="})
+    @ApiOperation(value = "Streams watermarked document of publication.")
+    public void getWatermarkedDocument(@PathVariable("publication_id") Long id, @RequestParam Content content,
+                                       HttpServletResponse response) throws IOException {
+        log.debug("::getWatermarkedDocument {} with {} content", id, content);
+
+        publicationService.find(id, content);
+        try (FileChannel document = documentStore.openWatermarked(id).orElseThrow(NotFoundException::new)) {
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setContentLengthLong(document.size());
+            DocumentStore.transfer(document, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
     @RequestMapping(path = "/update", method = RequestMethod.PUT)
     @ResponseStatus(HttpStatus.CREATED)
     @ApiOperation(value = "Updates publication.")
@@ -87,9 +207,14 @@ public class PublicationController {
     @RequestMapping(method = RequestMethod.DELETE)
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @ApiOperation(value = "Deletes publication.")
-    public void deletePublication(@Validated @RequestBody PublicationRequestDTO request) {
+    public void deletePublication(@Validated @RequestBody PublicationRequestDTO request) throws IOException {
         log.debug("::deletePublication {}", request);
 
         publicationService.delete(request.getPublicationId(), request.getContent());
+        documentStore.delete(request.getPublicationId());
+    }
+
+    private static BufferedReader reader(InputStream body) {
+        return new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
     }
 }
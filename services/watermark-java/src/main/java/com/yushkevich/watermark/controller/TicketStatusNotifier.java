@@ -0,0 +1,181 @@
+package com.yushkevich.watermark.controller;
+
+import com.yushkevich.watermark.domain.Watermark;
+import com.yushkevich.watermark.dto.TicketDTO;
+import com.yushkevich.watermark.event.WatermarkStatusChangedEvent;
+import com.yushkevich.watermark.exception.NotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import rx.Observable;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Keeps clients waiting for ticket status change (long polling and server-sent events) and completes them
+ * when {@link WatermarkStatusChangedEvent} is published, so clients don't need to poll ticket in a loop.
+ * Client is registered before current ticket is read, so change in between is not lost. Current ticket read after
+ * a change has been delivered to the client is older than (or the same as) that change and is dropped.
+ */
+
+@Component
+@Slf4j
+public class TicketStatusNotifier {
+
+    private final Map<UUID, Set<Waiter>> waiters = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    @Value("${watermark.ticket.awaitTimeoutInMilliseconds}")
+    private long awaitTimeout;
+
+    /**
+     * Long polling. Completes when ticket status differs from known one, otherwise with last known ticket on timeout,
+     * or with 304 Not Modified on timeout if current ticket hasn't been read yet.
+     *
+     * @param ticketId      Id of ticket/watermark
+     * @param knownStatus   Status already known by client
+     * @param currentTicket Current state of ticket
+     * @return Deferred ticket
+     */
+    public DeferredResult<ResponseEntity<TicketDTO>> awaitStatusChange(UUID ticketId, Watermark.Status knownStatus,
+                                                                       Observable<TicketDTO> currentTicket) {
+        final Waiter waiter = new Waiter(new DeferredResult<>(awaitTimeout), knownStatus);
+        final DeferredResult<ResponseEntity<TicketDTO>> deferredResult = waiter.deferredResult;
+
+        register(waiters, ticketId, waiter);
+        deferredResult.onCompletion(() -> unregister(waiters, ticketId, waiter));
+        deferredResult.onTimeout(waiter::timeout);
+
+        currentTicket.subscribe(ticket -> waiter.update(ticket, false), deferredResult::setErrorResult);
+
+        return deferredResult;
+    }
+
+    /**
+     * Server-sent events. Sends current ticket and every change of it. Stream is completed when watermarking is finished.
+     *
+     * @param ticketId      Id of ticket/watermark
+     * @param currentTicket Current state of ticket
+     * @return Emitter of tickets
+     */
+    public SseEmitter subscribe(UUID ticketId, Observable<TicketDTO> currentTicket) {
+        final Subscriber subscriber = new Subscriber(new SseEmitter(awaitTimeout));
+        final SseEmitter emitter = subscriber.emitter;
+
+        register(subscribers, ticketId, subscriber);
+        emitter.onCompletion(() -> unregister(subscribers, ticketId, subscriber));
+        emitter.onTimeout(emitter::complete);
+
+        currentTicket.subscribe(ticket -> subscriber.send(ticket, false), emitter::completeWithError);
+
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(WatermarkStatusChangedEvent event) {
+        final UUID ticketId = event.getTicketId();
+        final TicketDTO ticket = event.getTicket();
+        log.debug("::onStatusChanged {}", event);
+
+        final Set<Waiter> ticketWaiters = waiters.get(ticketId);
+        if (nonNull(ticketWaiters)) {
+            ticketWaiters.forEach(waiter -> {
+                if (isNull(ticket)) {
+                    waiter.deferredResult.setErrorResult(new NotFoundException());
+                } else {
+                    waiter.update(ticket, true);
+                }
+            });
+        }
+
+        final Set<Subscriber> ticketSubscribers = subscribers.get(ticketId);
+        if (nonNull(ticketSubscribers)) {
+            ticketSubscribers.forEach(subscriber -> {
+                if (isNull(ticket)) {
+                    subscriber.emitter.complete();
+                } else {
+                    subscriber.send(ticket, true);
+                }
+            });
+        }
+    }
+
+    private static <T> void register(Map<UUID, Set<T>> listeners, UUID ticketId, T listener) {
+        listeners.computeIfAbsent(ticketId, id -> ConcurrentHashMap.newKeySet()).add(listener);
+    }
+
+    private static <T> void unregister(Map<UUID, Set<T>> listeners, UUID ticketId, T listener) {
+        listeners.computeIfPresent(ticketId, (id, ticketListeners) -> {
+            ticketListeners.remove(listener);
+            return ticketListeners.isEmpty() ? null : ticketListeners;
+        });
+    }
+
+    /**
+     * Long polling client, completed by the first ticket with status other than known by client.
+     */
+    @RequiredArgsConstructor
+    private static final class Waiter {
+        private final DeferredResult<ResponseEntity<TicketDTO>> deferredResult;
+        private final Watermark.Status knownStatus;
+        private TicketDTO lastKnownTicket;
+        private boolean changed;
+
+        synchronized void update(TicketDTO ticket, boolean change) {
+            if (!change && changed) {
+                return;
+            }
+            changed |= change;
+            lastKnownTicket = ticket;
+            if (knownStatus != ticket.getStatus()) {
+                deferredResult.setResult(ResponseEntity.ok(ticket));
+            }
+        }
+
+        synchronized void timeout() {
+            deferredResult.setResult(isNull(lastKnownTicket)
+                    ? ResponseEntity.status(HttpStatus.NOT_MODIFIED).build()
+                    : ResponseEntity.ok(lastKnownTicket));
+        }
+    }
+
+    /**
+     * Server-sent events client, stream is completed by finished ticket.
+     */
+    @RequiredArgsConstructor
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private boolean changed;
+
+        synchronized void send(TicketDTO ticket, boolean change) {
+            if (!change && changed) {
+                log.debug("::send drops current ticket {} read before delivered change", ticket.getId());
+                return;
+            }
+            changed |= change;
+            try {
+                emitter.send(SseEmitter.event().name("ticket").data(ticket, MediaType.APPLICATION_JSON));
+                if (ticket.getStatus().isFinished()) {
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("::send client has gone for ticket {}", ticket.getId());
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
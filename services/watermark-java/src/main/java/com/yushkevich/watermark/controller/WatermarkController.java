@@ -1,19 +1,35 @@
 package com.yushkevich.watermark.controller;
 
+import com.yushkevich.watermark.cache.CachedTicket;
+import com.yushkevich.watermark.domain.Content;
+import com.yushkevich.watermark.domain.Watermark;
+import com.yushkevich.watermark.dto.BulkWatermarkRequestDTO;
 import com.yushkevich.watermark.dto.PublicationRequestDTO;
 import com.yushkevich.watermark.dto.TicketDTO;
+import com.yushkevich.watermark.exception.BadRequestException;
+import com.yushkevich.watermark.repository.PublicationFilter;
 import com.yushkevich.watermark.service.WatermarkService;
-import com.yushkevich.watermark.utils.mapper.WatermarkMapper;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
+import static java.util.Objects.nonNull;
+
 /**
  * Async controller for creation of watermark and for polling it\ status.
  */
@@ -25,7 +41,10 @@ import java.util.UUID;
 @Api("Async operations for watermarks")
 public class WatermarkController {
 
+    private static final int MAX_BULK_PUBLICATION_IDS = 10000;
+
     private final WatermarkService watermarkService;
+    private final TicketStatusNotifier ticketStatusNotifier;
 
     @RequestMapping(method = RequestMethod.POST)
     @ApiOperation(value = "For a given content document returns a ticket UUID.")
@@ -34,22 +53,94 @@ public class WatermarkController {
 
         DeferredResult<UUID> deferredResult = new DeferredResult<>();
         watermarkService.watermarkDocument(request.getPublicationId(), request.getContent())
-                .subscribe(deferredResult::setResult);
+                .subscribe(deferredResult::setResult, deferredResult::setErrorResult);
+
+        return deferredResult;
+    }
+
+    @RequestMapping(value = "/bulk", method = RequestMethod.POST)
+    @ApiOperation(value = "For all selected documents returns ticket UUIDs by publication ids. Documents which are " +
+            "already pending are skipped.")
+    public DeferredResult<Map<Long, UUID>> watermarkDocuments(@Validated @RequestBody BulkWatermarkRequestDTO request) {
+        log.debug("::watermarkDocuments {}", request);
+        validate(request);
+
+        DeferredResult<Map<Long, UUID>> deferredResult = new DeferredResult<>();
+        watermarkService.watermarkDocuments(PublicationFilter.builder()
+                .content(request.getContent())
+                .publicationIds(request.getPublicationIds())
+                .topic(request.getTopic())
+                .watermarkStatus(request.getStatus())
+                .build())
+                .subscribe(deferredResult::setResult, deferredResult::setErrorResult);
 
         return deferredResult;
     }
 
     @RequestMapping(value = "/{ticket_id}", method = RequestMethod.GET, params = {"ticket_id!="})
     @ApiOperation(value = "Endpoint to poll the status of watermark processing. If the watermarking is finished the " +
-            "document can be retrieved with the ticket.")
-    public DeferredResult<TicketDTO> getTicketById(@PathVariable("ticket_id") UUID ticketId) {
+            "document can be retrieved with the ticket. Finished ticket is served with ETag and supports If-None-Match.")
+    public DeferredResult<TicketDTO> getTicketById(@PathVariable("ticket_id") UUID ticketId,
+                                                   HttpServletRequest request,
+                                                   HttpServletResponse response) throws IOException {
         log.debug("::getTicketById {}", ticketId);
 
+        final Optional<CachedTicket> serializedTicket = watermarkService.findSerializedTicket(ticketId);
+        if (serializedTicket.isPresent()) {
+            writeSerializedTicket(serializedTicket.get(), new ServletWebRequest(request, response), response);
+            return null;
+        }
+
         DeferredResult<TicketDTO> deferredResult = new DeferredResult<>();
         watermarkService.pollWatermarkStatus(ticketId)
-                .map(WatermarkMapper::buildTicketDTO)
-                .subscribe(deferredResult::setResult);
+                .subscribe(deferredResult::setResult, deferredResult::setErrorResult);
 
         return deferredResult;
     }
+
+    @RequestMapping(value = "/{ticket_id}/await", method = RequestMethod.GET, params = {"status"})
+    @ApiOperation(value = "Long polling of watermark processing status. Responds as soon as status of ticket differs " +
+            "from the given one or with current ticket on timeout (304 Not Modified if it hasn't been read yet).")
+    public DeferredResult<ResponseEntity<TicketDTO>> awaitTicketStatusChange(@PathVariable("ticket_id") UUID ticketId,
+                                                                             @RequestParam Watermark.Status status) {
+        log.debug("::awaitTicketStatusChange {} from {}", ticketId, status);
+
+        return ticketStatusNotifier.awaitStatusChange(ticketId, status, watermarkService.pollWatermarkStatus(ticketId));
+    }
+
+    @RequestMapping(value = "/{ticket_id}/events", method = RequestMethod.GET,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiOperation(value = "Stream(server-sent events) of watermark processing status. Sends current ticket and every " +
+            "change of it, stream is completed when watermarking is finished.")
+    public SseEmitter streamTicketStatus(@PathVariable("ticket_id") UUID ticketId) {
+        log.debug("::streamTicketStatus {}", ticketId);
+
+        return ticketStatusNotifier.subscribe(ticketId, watermarkService.pollWatermarkStatus(ticketId));
+    }
+
+    private static void validate(BulkWatermarkRequestDTO request) {
+        if (nonNull(request.getPublicationIds()) && request.getPublicationIds().size() > MAX_BULK_PUBLICATION_IDS) {
+            throw new BadRequestException(String.format("At most %s publication ids are allowed",
+                    MAX_BULK_PUBLICATION_IDS));
+        }
+        if (nonNull(request.getTopic()) && request.getContent() != Content.BOOK) {
+            throw new BadRequestException("Topic is allowed for books only");
+        }
+        if (request.getStatus() == Watermark.Status.PENDING) {
+            throw new BadRequestException("PENDING documents can't be watermarked");
+        }
+    }
+
+    private static void writeSerializedTicket(CachedTicket ticket, ServletWebRequest webRequest,
+                                              HttpServletResponse response) throws IOException {
+        if (webRequest.checkNotModified(ticket.getETag())) {
+            log.debug("::writeSerializedTicket not modified {}", ticket);
+            return;
+        }
+
+        final byte[] json = ticket.getJson();
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        response.setContentLength(json.length);
+        response.getOutputStream().write(json);
+    }
 }
@@ -0,0 +1,147 @@
+package com.yushkevich.watermark.document;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * File system storage of documents per publication in {@code watermark.document.directory}: original document
+ * ({@code <publicationId>}) and its watermarked copy ({@code <publicationId>.watermarked}). Documents are streamed
+ * through NIO channels and written to temporary file first, so readers never see partially written document.
+ */
+
+@Component
+@Slf4j
+public class DocumentStore {
+
+    private static final String WATERMARKED_SUFFIX = ".watermarked";
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+
+    private final Path directory;
+
+    public DocumentStore(DocumentStoreProperties properties) throws IOException {
+        this.directory = Paths.get(properties.getDirectory());
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Stores original document of publication, watermarked copy of previous document is removed.
+     *
+     * @return Size of document
+     */
+    public long store(Long publicationId, ReadableByteChannel document) throws IOException {
+        final long size = write(documentPath(publicationId), target -> {
+            long position = 0;
+            long transferred;
+            // 0 is returned at the end of stream
+            while ((transferred = target.transferFrom(document, position, TRANSFER_CHUNK)) > 0) {
+                position += transferred;
+            }
+            return position;
+        });
+        Files.deleteIfExists(watermarkedPath(publicationId));
+        log.debug("::store {} bytes for publication {}", size, publicationId);
+        return size;
+    }
+
+    public Optional<Path> findDocument(Long publicationId) {
+        final Path document = documentPath(publicationId);
+        return Files.isRegularFile(document) ? Optional.of(document) : Optional.empty();
+    }
+
+    /**
+     * @param writer Writes watermarked document into given channel
+     * @return Size of watermarked document
+     */
+    public long storeWatermarked(Long publicationId, DocumentWriter writer) throws IOException {
+        return write(watermarkedPath(publicationId), writer);
+    }
+
+    /**
+     * @return Channel of watermarked document, caller closes it
+     */
+    public Optional<FileChannel> openWatermarked(Long publicationId) throws IOException {
+        try {
+            return Optional.of(FileChannel.open(watermarkedPath(publicationId), READ));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    public void delete(Long publicationId) throws IOException {
+        Files.deleteIfExists(documentPath(publicationId));
+        Files.deleteIfExists(watermarkedPath(publicationId));
+    }
+
+    /**
+     * Transfers whole file from its current position, file to file/socket transfer is done without copy to heap.
+     *
+     * @return Number of transferred bytes
+     */
+    public static long transfer(FileChannel source, WritableByteChannel target) throws IOException {
+        final long start = source.position();
+        final long size = source.size();
+        long position = start;
+        while (position < size) {
+            position += source.transferTo(position, Math.min(TRANSFER_CHUNK, size - position), target);
+        }
+        source.position(position);
+        return position - start;
+    }
+
+    /**
+     * @return Number of written bytes
+     */
+    public static long write(WritableByteChannel target, ByteBuffer source) throws IOException {
+        final int size = source.remaining();
+        while (source.hasRemaining()) {
+            target.write(source);
+        }
+        return size;
+    }
+
+    private long write(Path path, DocumentWriter writer) throws IOException {
+        final Path tempFile = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            final long size;
+            try (FileChannel target = FileChannel.open(tempFile, WRITE)) {
+                size = writer.write(target);
+            }
+            Files.move(tempFile, path, ATOMIC_MOVE, REPLACE_EXISTING);
+            return size;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private Path documentPath(Long publicationId) {
+        return directory.resolve(String.valueOf(publicationId));
+    }
+
+    private Path watermarkedPath(Long publicationId) {
+        return directory.resolve(publicationId + WATERMARKED_SUFFIX);
+    }
+
+    @FunctionalInterface
+    public interface DocumentWriter {
+        /**
+         * @return Number of written bytes
+         */
+        long write(FileChannel target) throws IOException;
+    }
+}
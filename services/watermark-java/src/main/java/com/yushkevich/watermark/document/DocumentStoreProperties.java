@@ -0,0 +1,14 @@
+package com.yushkevich.watermark.document;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "watermark.document")
+@Getter
+@Setter
+public class DocumentStoreProperties {
+    private String directory;
+}
@@ -1,6 +1,5 @@
 package com.yushkevich.watermark.domain;
 
-import com.google.common.collect.Lists;
 import lombok.*;
 
 import javax.persistence.DiscriminatorValue;
@@ -29,16 +28,16 @@ public class Book extends Publication {
 
     @Builder
     public Book(final String title, final String author, final Topic topic) {
-        super(null, BOOK.getName(), title, author, null, null, null);
+        super(null, BOOK.getName(), title, author, null, null, null, null);
 
         this.topic = topic.getName();
     }
 
     @Override
     public List<String> getWatermarkProperties() {
-        final List<String> superProperties = Lists.newArrayList(super.getWatermarkProperties());
-        superProperties.add(topic);
-        return superProperties;
+        final List<String> watermarkProperties = newWatermarkProperties(4);
+        watermarkProperties.add(topic);
+        return watermarkProperties;
     }
 
     public Topic getTopic() {
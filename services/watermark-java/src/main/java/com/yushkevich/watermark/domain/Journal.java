@@ -25,6 +25,6 @@ public class Journal extends Publication {
 
     @Builder
     public Journal(final String title, final String author) {
-        super(null, JOURNAL.getName(), title, author, null, null, null);
+        super(null, JOURNAL.getName(), title, author, null, null, null, null);
     }
 }
\ No newline at end of file
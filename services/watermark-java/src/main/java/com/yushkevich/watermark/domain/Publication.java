@@ -1,16 +1,18 @@
 package com.yushkevich.watermark.domain;
 
-import com.google.common.collect.Lists;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.*;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -35,8 +37,14 @@ import static java.util.Objects.isNull;
 public abstract class Publication implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
-    private Long id;
+    @GeneratedValue(generator = "publication_seq")
+    @GenericGenerator(name = "publication_seq", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "publication_seq"),
+                    @Parameter(name = "increment_size", value = "50"),
+                    @Parameter(name = "optimizer", value = "pooled")
+            })
+    private Long id; // sequence is read once per 50 ids, so batch inserts are not interleaved with sequence calls
 
     @Column(nullable = false, insertable = false, updatable = false)
     private String content;
@@ -51,10 +59,12 @@ public abstract class Publication implements Serializable {
     private Date created;
 
     @LastModifiedDate
-    @Version
     @Temporal(TemporalType.TIMESTAMP)
     private Date updated;
 
+    @Version
+    private Long version; // numeric, so concurrent changes within the same millisecond are detected as well
+
     @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "watermark_id")
     private Watermark watermark;
@@ -68,7 +78,19 @@ public abstract class Publication implements Serializable {
     }
 
     public List<String> getWatermarkProperties() {
-        return Lists.newArrayList(content, author, title);
+        return newWatermarkProperties(3);
+    }
+
+    /**
+     * @param capacity Capacity of list, subclasses add own properties without copy
+     * @return Mutable list of common watermark properties
+     */
+    protected List<String> newWatermarkProperties(int capacity) {
+        final List<String> watermarkProperties = new ArrayList<>(capacity);
+        watermarkProperties.add(content);
+        watermarkProperties.add(author);
+        watermarkProperties.add(title);
+        return watermarkProperties;
     }
 
     @Override
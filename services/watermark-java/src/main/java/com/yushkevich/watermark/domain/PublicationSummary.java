@@ -0,0 +1,34 @@
+package com.yushkevich.watermark.domain;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Read-only projection of publication for listing. It is selected with constructor expression, so only listed
+ * columns are read and nothing is put into persistence context.
+ *
+ * @see Publication
+ */
+
+@Getter
+@ToString
+public class PublicationSummary {
+
+    private final Long id;
+    private final Content content;
+    private final String title;
+    private final String author;
+    private final Book.Topic topic;
+
+    public PublicationSummary(Long id, String content, String title, String author) {
+        this(id, content, title, author, null);
+    }
+
+    public PublicationSummary(Long id, String content, String title, String author, String topic) {
+        this.id = id;
+        this.content = Content.findByName(content);
+        this.title = title;
+        this.author = author;
+        this.topic = Book.Topic.findByName(topic);
+    }
+}
@@ -39,10 +39,12 @@ public class Watermark implements Serializable {
     private Date created;
 
     @LastModifiedDate
-    @Version
     @Temporal(TemporalType.TIMESTAMP)
     private Date updated;
 
+    @Version
+    private Long version; // expected by compare-and-set of status transitions
+
     @OneToOne(mappedBy = "watermark")
     private Publication publication;
 
@@ -85,5 +87,12 @@ public class Watermark implements Serializable {
 
             return null;
         }
+
+        /**
+         * @return true if watermark processing is finished
+         */
+        public boolean isFinished() {
+            return this == SUCCESS || this == FAILED;
+        }
     }
 }
@@ -0,0 +1,94 @@
+package com.yushkevich.watermark.domain;
+
+import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Entity class for persistent watermark generation job. Job exists while related {@link Watermark} is PENDING,
+ * so generation survives restart of the service.
+ */
+
+@Entity
+@Table(name = "watermark_jobs")
+@EntityListeners(AuditingEntityListener.class)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class WatermarkJob implements Serializable {
+
+    @Id
+    @GeneratedValue(generator = "watermark_job_seq")
+    @GenericGenerator(name = "watermark_job_seq", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "watermark_job_seq"),
+                    @Parameter(name = "increment_size", value = "50"),
+                    @Parameter(name = "optimizer", value = "pooled")
+            })
+    private Long id;
+
+    @Column(columnDefinition = "BINARY(16)", nullable = false, unique = true)
+    private UUID watermarkId;
+
+    @Column(nullable = false)
+    private Long publicationId;
+
+    @Column(nullable = false)
+    private String content;
+
+    @Column(nullable = false)
+    private String status;
+
+    private int attempts;
+
+    @CreatedDate
+    @Column(updatable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date created;
+
+    @LastModifiedDate
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updated;
+
+    public Content getContent() {
+        return Content.findByName(this.content);
+    }
+
+    public Status getStatus() {
+        return Status.findByName(this.status);
+    }
+
+    @AllArgsConstructor
+    public enum Status {
+
+        QUEUED("QUEUED"), RUNNING("RUNNING");
+
+        @Getter
+        private String name;
+
+        public static Status findByName(String name) {
+            if (null == name) {
+                return null;
+            }
+
+            for (Status status : values()) {
+                if (status.getName().equals(name)) {
+                    return status;
+                }
+            }
+
+            return null;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.yushkevich.watermark.domain;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.UUID;
+
+/**
+ * Read-only projection of publication's watermark, selected when only existence and status are checked
+ * (without loading of publication entity). Version is expected by compare-and-set of status transition.
+ *
+ * @see Watermark
+ */
+
+@Getter
+@ToString
+public class WatermarkState {
+
+    private final Long publicationId;
+    private final UUID watermarkId;
+    private final Watermark.Status status;
+    private final Long version;
+
+    public WatermarkState(Long publicationId, UUID watermarkId, String status, Long version) {
+        this.publicationId = publicationId;
+        this.watermarkId = watermarkId;
+        this.status = Watermark.Status.findByName(status);
+        this.version = version;
+    }
+}
@@ -0,0 +1,33 @@
+package com.yushkevich.watermark.dto;
+
+import com.yushkevich.watermark.domain.Book;
+import com.yushkevich.watermark.domain.Content;
+import com.yushkevich.watermark.domain.Watermark;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * Request for bulk watermarking, publications are selected by ids and/or filter.
+ */
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkWatermarkRequestDTO {
+    @NotNull
+    @ApiModelProperty(notes = "Content of publications", required = true)
+    private Content content;
+    @ApiModelProperty(notes = "Ids of publications(all publications of content if absent)")
+    private List<Long> publicationIds;
+    @ApiModelProperty(notes = "Topic(for books only)")
+    private Book.Topic topic;
+    @ApiModelProperty(notes = "Current watermark status, e.g. FAILED to retry failed watermarks")
+    private Watermark.Status status;
+}
@@ -0,0 +1,21 @@
+package com.yushkevich.watermark.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Page of keyset pagination. {@link #nextCursor} is absent on the last page, {@link #totalEntries} is present
+ * only if it was requested.
+ */
+
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPageDTO<T> {
+    private List<T> entries;
+    private String nextCursor;
+    private Long totalEntries;
+}
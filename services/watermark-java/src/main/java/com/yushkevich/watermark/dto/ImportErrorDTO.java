@@ -0,0 +1,13 @@
+package com.yushkevich.watermark.dto;
+
+import lombok.Value;
+
+/**
+ * Rejected line of bulk import.
+ */
+
+@Value
+public class ImportErrorDTO {
+    private long line;
+    private String message;
+}
@@ -0,0 +1,18 @@
+package com.yushkevich.watermark.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Result of bulk import. {@link #errors} are limited, {@link #failed} counts all rejected lines.
+ */
+
+@Value
+@Builder
+public class ImportResultDTO {
+    private long imported;
+    private long failed;
+    private List<ImportErrorDTO> errors;
+}
@@ -0,0 +1,23 @@
+package com.yushkevich.watermark.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.yushkevich.watermark.domain.Book;
+import com.yushkevich.watermark.domain.Content;
+import com.yushkevich.watermark.domain.Watermark;
+import lombok.Value;
+
+/**
+ * Exported publication with its watermark. {@link #watermark} is empty if document has not been watermarked yet.
+ */
+
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PublicationExportDTO {
+    private Long id;
+    private Content content;
+    private String title;
+    private String author;
+    private Book.Topic topic;
+    private String watermark;
+    private Watermark.Status status;
+}
@@ -0,0 +1,20 @@
+package com.yushkevich.watermark.event;
+
+import com.yushkevich.watermark.dto.TicketDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.UUID;
+
+/**
+ * Published when watermark (ticket) status is changed. Ticket is {@code null} when watermark has been removed.
+ */
+
+@AllArgsConstructor
+@Getter
+@ToString
+public class WatermarkStatusChangedEvent {
+    private final UUID ticketId;
+    private final TicketDTO ticket;
+}
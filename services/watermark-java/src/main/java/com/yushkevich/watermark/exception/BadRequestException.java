@@ -0,0 +1,14 @@
+package com.yushkevich.watermark.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BadRequestException extends RuntimeException {
+
+    private static final long serialVersionUID = 3546281327394617834L;
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
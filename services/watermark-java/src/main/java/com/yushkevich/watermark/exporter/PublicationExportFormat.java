@@ -0,0 +1,85 @@
+package com.yushkevich.watermark.exporter;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.yushkevich.watermark.dto.PublicationExportDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Line based formats of export, every line holds one publication.
+ */
+@AllArgsConstructor
+public enum PublicationExportFormat {
+
+    /**
+     * Newline delimited JSON, every line is a {@link PublicationExportDTO}.
+     */
+    NDJSON("application/x-ndjson") {
+        @Override
+        public void writeHeader(Writer writer) {
+        }
+
+        @Override
+        public void write(Writer writer, PublicationExportDTO publication, ObjectWriter objectWriter) throws IOException {
+            objectWriter.writeValue(writer, publication);
+            writer.write('\n');
+        }
+    },
+
+    /**
+     * Comma separated values in order {@value #CSV_HEADER} with header line, values containing separators or quotes
+     * are double quoted.
+     */
+    CSV("text/csv") {
+        @Override
+        public void writeHeader(Writer writer) throws IOException {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(Writer writer, PublicationExportDTO publication, ObjectWriter objectWriter) throws IOException {
+            writeValue(writer, publication.getId(), ',');
+            writeValue(writer, publication.getContent(), ',');
+            writeValue(writer, publication.getTitle(), ',');
+            writeValue(writer, publication.getAuthor(), ',');
+            writeValue(writer, publication.getTopic(), ',');
+            writeValue(writer, publication.getWatermark(), ',');
+            writeValue(writer, publication.getStatus(), '\n');
+        }
+    };
+
+    public static final String CSV_HEADER = "id,content,title,author,topic,watermark,status";
+
+    @Getter
+    private final String mediaType;
+
+    public abstract void writeHeader(Writer writer) throws IOException;
+
+    /**
+     * @param writer       Output
+     * @param publication  Exported publication
+     * @param objectWriter JSON writer which neither closes nor flushes output
+     */
+    public abstract void write(Writer writer, PublicationExportDTO publication, ObjectWriter objectWriter)
+            throws IOException;
+
+    static void writeValue(Writer writer, Object value, char separator) throws IOException {
+        if (nonNull(value)) {
+            final String text = value instanceof Enum ? ((Enum<?>) value).name() : value.toString();
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                writer.write(text);
+            } else {
+                writer.write('"');
+                writer.write(text.replace("\"", "\"\""));
+                writer.write('"');
+            }
+        }
+        writer.write(separator);
+    }
+}
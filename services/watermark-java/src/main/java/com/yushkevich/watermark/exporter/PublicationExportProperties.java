@@ -0,0 +1,14 @@
+package com.yushkevich.watermark.exporter;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "watermark.export")
+@Getter
+@Setter
+public class PublicationExportProperties {
+    private int fetchSize;
+}
@@ -0,0 +1,97 @@
+package com.yushkevich.watermark.exporter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.yushkevich.watermark.domain.Book;
+import com.yushkevich.watermark.domain.Content;
+import com.yushkevich.watermark.domain.Watermark;
+import com.yushkevich.watermark.dto.PublicationExportDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Export of all publications with their watermarks. Rows are read by forward-only, read-only JDBC cursor
+ * ({@code watermark.export.fetchSize} rows per round trip) and every row is written to output as soon as it is read,
+ * so memory doesn't grow with size of catalogue.
+ */
+
+@Component
+@Slf4j
+public class PublicationExporter {
+
+    private static final String SELECT_PUBLICATIONS = "select p.id, p.content, p.title, p.author, p.topic, " +
+            "w.property, w.status from publications p left join watermarks w on w.id = p.watermark_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectWriter objectWriter;
+
+    public PublicationExporter(DataSource dataSource,
+                               ObjectMapper objectMapper,
+                               PublicationExportProperties publicationExportProperties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(publicationExportProperties.getFetchSize());
+        // output is flushed and closed by caller only
+        this.objectWriter = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+    }
+
+    /**
+     * Cursor is kept open within read-only transaction (some drivers fetch whole result otherwise).
+     *
+     * @param content Content of exported publications, all publications if null
+     * @param format  Format of lines
+     * @param writer  Output, neither flushed nor closed
+     * @return Number of exported publications
+     * @throws IOException if output can't be written (e.g. client has gone), rest of publications is not read
+     */
+    @Transactional(readOnly = true)
+    public long exportPublications(Content content, PublicationExportFormat format, Writer writer) throws IOException {
+        final AtomicLong exported = new AtomicLong();
+        final RowCallbackHandler rowWriter = resultSet -> writeRow(resultSet, format, writer, exported);
+        format.writeHeader(writer);
+        try {
+            if (isNull(content)) {
+                jdbcTemplate.query(SELECT_PUBLICATIONS + " order by p.id", rowWriter);
+            } else {
+                jdbcTemplate.query(SELECT_PUBLICATIONS + " where p.content = ? order by p.id", rowWriter,
+                        content.getName());
+            }
+        } catch (UncheckedIOException e) {
+            log.warn("::exportPublications aborted after {} publications", exported.get());
+            throw e.getCause();
+        }
+
+        log.info("::exportPublications {} {} publications as {}", exported.get(), isNull(content) ? "all" : content,
+                format);
+        return exported.get();
+    }
+
+    private void writeRow(ResultSet resultSet, PublicationExportFormat format, Writer writer, AtomicLong exported)
+            throws SQLException {
+        final PublicationExportDTO publication = new PublicationExportDTO(resultSet.getLong(1),
+                Content.findByName(resultSet.getString(2)), resultSet.getString(3), resultSet.getString(4),
+                Book.Topic.findByName(resultSet.getString(5)), resultSet.getString(6),
+                Watermark.Status.findByName(resultSet.getString(7)));
+        try {
+            format.write(writer, publication, objectWriter);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        exported.incrementAndGet();
+    }
+}
@@ -0,0 +1,15 @@
+package com.yushkevich.watermark.importer;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "watermark.import")
+@Getter
+@Setter
+public class PublicationImportProperties {
+    private int batchSize;
+    private int maxReportedErrors;
+}
@@ -0,0 +1,183 @@
+package com.yushkevich.watermark.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Throwables;
+import com.yushkevich.watermark.domain.Publication;
+import com.yushkevich.watermark.dto.ImportErrorDTO;
+import com.yushkevich.watermark.dto.ImportResultDTO;
+import com.yushkevich.watermark.dto.PublicationDTO;
+import com.yushkevich.watermark.validation.PublicationDTOValidator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.yushkevich.watermark.utils.mapper.PublicationMapper.buildPublication;
+import static java.util.Objects.nonNull;
+
+/**
+ * Bulk import of publications. Input is read record by record ({@link PublicationRecordFormat}) and persisted in
+ * batches: every batch is flushed as JDBC batch(hibernate.jdbc.batch_size) in its own transaction and persistence
+ * context is cleared afterwards, so memory doesn't grow with size of input. Ids are assigned by pooled sequence optimiser of {@link Publication}.
+ * <p>
+ * Invalid records are reported by their first line and skipped. Batch failed in DB is rolled back and its records are
+ * persisted again one per transaction, so only records failing themselves are rejected (with their own error).
+ */
+
+@Component
+@Slf4j
+public class PublicationImporter {
+
+    private final PublicationDTOValidator validator;
+    private final ObjectMapper objectMapper;
+    private final PublicationImportProperties publicationImportProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public PublicationImporter(PublicationDTOValidator validator,
+                               ObjectMapper objectMapper,
+                               PublicationImportProperties publicationImportProperties,
+                               PlatformTransactionManager transactionManager) {
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.publicationImportProperties = publicationImportProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @param reader Input with one publication per record
+     * @param format Format of records
+     * @return Number of imported publications and rejected lines
+     * @throws IOException if input can't be read, batches persisted before are kept
+     */
+    public ImportResultDTO importPublications(BufferedReader reader, PublicationRecordFormat format) throws IOException {
+        final int batchSize = publicationImportProperties.getBatchSize();
+        final Result result = new Result(publicationImportProperties.getMaxReportedErrors());
+        final List<Row> batch = new ArrayList<>(batchSize);
+
+        final LineNumberReader lines = new LineNumberReader(reader);
+        long lineNumber = 0;
+        List<String> columns = PublicationRecordFormat.CSV_COLUMNS;
+        String record;
+        while ((record = format.readRecord(lines)) != null) {
+            lineNumber = lines.getLineNumber();
+            final long recordLine = lineNumber - record.chars().filter(c -> c == '\n').count();
+            if (record.trim().isEmpty()) {
+                continue;
+            }
+            final List<String> header = format.parseHeader(record);
+            if (nonNull(header)) {
+                columns = header;
+                continue;
+            }
+
+            try {
+                batch.add(new Row(recordLine, buildValidPublication(format.parse(record, columns, objectMapper))));
+            } catch (Exception e) {
+                result.reject(recordLine, e.getMessage());
+            }
+
+            if (batch.size() == batchSize) {
+                persist(batch, result);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            persist(batch, result);
+        }
+
+        log.info("::importPublications {} lines: imported {}, rejected {}", lineNumber, result.imported, result.failed);
+        return ImportResultDTO.builder()
+                .imported(result.imported)
+                .failed(result.failed)
+                .errors(result.errors)
+                .build();
+    }
+
+    private Publication buildValidPublication(PublicationDTO dto) {
+        final Errors errors = new BeanPropertyBindingResult(dto, "publicationDTO");
+        validator.validate(dto, errors);
+        if (errors.hasErrors()) {
+            throw new IllegalArgumentException(errors.getFieldErrors().stream()
+                    .map(error -> error.getField() + ": " + error.getCode())
+                    .collect(Collectors.joining(", ")));
+        }
+
+        dto.setId(null);
+        return buildPublication(dto);
+    }
+
+    private void persist(List<Row> batch, Result result) {
+        try {
+            transactionTemplate.execute(status -> {
+                batch.forEach(row -> entityManager.persist(row.publication));
+                entityManager.flush();
+                entityManager.clear();
+                return null;
+            });
+            result.imported += batch.size();
+            log.debug("::persist batch of {} up to line {}", batch.size(), batch.get(batch.size() - 1).line);
+        } catch (RuntimeException e) {
+            log.warn("Failure persist batch of {} up to line {}, persisting it row by row", batch.size(),
+                    batch.get(batch.size() - 1).line, e);
+            batch.forEach(row -> persist(row, result));
+        }
+    }
+
+    private void persist(Row row, Result result) {
+        // id assigned within rolled back transaction is not used, otherwise publication is taken as detached
+        row.publication.setId(null);
+        try {
+            transactionTemplate.execute(status -> {
+                entityManager.persist(row.publication);
+                entityManager.flush();
+                return null;
+            });
+            result.imported++;
+        } catch (RuntimeException e) {
+            log.debug("::persist rejected line {}", row.line, e);
+            result.reject(row.line, Throwables.getRootCause(e).getMessage());
+        }
+    }
+
+    private static class Row {
+        private final long line;
+        private final Publication publication;
+
+        private Row(long line, Publication publication) {
+            this.line = line;
+            this.publication = publication;
+        }
+    }
+
+    private static class Result {
+        private final int maxReportedErrors;
+        private final List<ImportErrorDTO> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        private Result(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        private void reject(long line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportErrorDTO(line, message));
+            }
+        }
+    }
+}
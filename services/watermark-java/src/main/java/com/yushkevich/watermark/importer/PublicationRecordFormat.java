@@ -0,0 +1,182 @@
+package com.yushkevich.watermark.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yushkevich.watermark.domain.Book;
+import com.yushkevich.watermark.domain.Content;
+import com.yushkevich.watermark.dto.PublicationDTO;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Record based formats of bulk import, every record holds one publication. Record is a line, except CSV record with
+ * quoted values containing line breaks (as written by CSV export), which continues on next lines. Both formats accept
+ * output of export as well: exported id, watermark and status are ignored.
+ */
+public enum PublicationRecordFormat {
+
+    /**
+     * Newline delimited JSON, every line is a {@link PublicationDTO}.
+     */
+    NDJSON {
+        @Override
+        public List<String> parseHeader(String record) {
+            return null;
+        }
+
+        @Override
+        public PublicationDTO parse(String record, List<String> columns, ObjectMapper objectMapper) throws IOException {
+            return objectMapper.readValue(record, PublicationDTO.class);
+        }
+    },
+
+    /**
+     * Comma separated values in order {@value #CSV_HEADER} or in order of header line (e.g. header of CSV export),
+     * values can be double quoted. Quoted value can contain line breaks, they are read as {@code \n}.
+     */
+    CSV {
+        @Override
+        public List<String> parseHeader(String record) {
+            final List<String> columns = new ArrayList<>();
+            for (String column : split(record)) {
+                columns.add(column.toLowerCase());
+            }
+            return KNOWN_CSV_COLUMNS.containsAll(columns) && columns.containsAll(REQUIRED_CSV_COLUMNS)
+                    ? columns : null;
+        }
+
+        @Override
+        boolean isContinued(CharSequence record) {
+            // escaped quotes are doubled, so odd number of quotes means quoted value is not terminated
+            int quotes = 0;
+            for (int i = 0; i < record.length(); i++) {
+                if (record.charAt(i) == '"') {
+                    quotes++;
+                }
+            }
+            return quotes % 2 != 0;
+        }
+
+        /**
+         * Trailing optional values (after the last required column) can be omitted.
+         */
+        @Override
+        public PublicationDTO parse(String record, List<String> columns, ObjectMapper objectMapper) {
+            final List<String> values = split(record);
+            final int requiredValues = REQUIRED_CSV_COLUMNS.stream().mapToInt(columns::indexOf).max().orElse(0) + 1;
+            if (values.size() < requiredValues || values.size() > columns.size()) {
+                throw new IllegalArgumentException(String.format("Expected columns %s, but got %s values",
+                        String.join(",", columns), values.size()));
+            }
+
+            final String content = value(values, columns, "content");
+            final String title = value(values, columns, "title");
+            final String author = value(values, columns, "author");
+            final String topic = value(values, columns, "topic");
+            return PublicationDTO.builder()
+                    .content(content.isEmpty() ? null : Content.valueOf(content))
+                    .title(title.isEmpty() ? null : title)
+                    .author(author.isEmpty() ? null : author)
+                    .topic(topic.isEmpty() ? null : Book.Topic.valueOf(topic))
+                    .build();
+        }
+
+        private String value(List<String> values, List<String> columns, String column) {
+            final int index = columns.indexOf(column);
+            return index < 0 || index >= values.size() ? "" : values.get(index);
+        }
+    };
+
+    public static final String CSV_HEADER = "content,title,author,topic";
+    public static final List<String> CSV_COLUMNS = Collections.unmodifiableList(Arrays.asList(CSV_HEADER.split(",")));
+    private static final List<String> REQUIRED_CSV_COLUMNS = Arrays.asList("content", "title", "author");
+    /**
+     * Columns of {@link com.yushkevich.watermark.exporter.PublicationExportFormat#CSV_HEADER}, id, watermark and
+     * status are ignored.
+     */
+    private static final Set<String> KNOWN_CSV_COLUMNS = new HashSet<>(Arrays.asList(
+            "id", "content", "title", "author", "topic", "watermark", "status"));
+    /**
+     * Record with not terminated quote doesn't consume the rest of input.
+     */
+    static final int MAX_LINES_PER_RECORD = 100;
+
+    /**
+     * @param record Record of input
+     * @return Columns in order of header, {@code null} if record is not a header
+     */
+    public abstract List<String> parseHeader(String record);
+
+    /**
+     * @param reader Input
+     * @return Next record (lines of one record are joined by {@code \n}) or {@code null} at the end of input
+     * @throws IOException if input can't be read
+     */
+    public String readRecord(BufferedReader reader) throws IOException {
+        final String line = reader.readLine();
+        if (isNull(line) || !isContinued(line)) {
+            return line;
+        }
+
+        final StringBuilder record = new StringBuilder(line);
+        String nextLine;
+        for (int lines = 1; lines < MAX_LINES_PER_RECORD && isContinued(record)
+                && (nextLine = reader.readLine()) != null; lines++) {
+            record.append('\n').append(nextLine);
+        }
+        return record.toString();
+    }
+
+    boolean isContinued(CharSequence record) {
+        return false;
+    }
+
+    /**
+     * @param record  Record of input
+     * @param columns Columns of the last header or {@link #CSV_COLUMNS} if there is no header
+     * @return Parsed publication
+     */
+    public abstract PublicationDTO parse(String record, List<String> columns, ObjectMapper objectMapper)
+            throws IOException;
+
+    static List<String> split(String line) {
+        final List<String> values = new ArrayList<>(4);
+        final StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString().trim());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted value");
+        }
+        values.add(value.toString().trim());
+
+        return values;
+    }
+}
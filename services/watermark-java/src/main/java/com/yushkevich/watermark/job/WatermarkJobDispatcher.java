@@ -0,0 +1,326 @@
+package com.yushkevich.watermark.job;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.yushkevich.watermark.ThreadsProperties;
+import com.yushkevich.watermark.client.WatermarkClientExecutor;
+import com.yushkevich.watermark.client.WatermarkHystrixCommandProperties;
+import com.yushkevich.watermark.client.WatermarkResultCache;
+import com.yushkevich.watermark.client.WatermarkSingleFlight;
+import com.yushkevich.watermark.client.command.WatermarkCollapser;
+import com.yushkevich.watermark.client.engine.WatermarkEngine;
+import com.yushkevich.watermark.client.engine.WatermarkEngines;
+import com.yushkevich.watermark.client.engine.WatermarkRequest;
+import com.yushkevich.watermark.domain.Content;
+import com.yushkevich.watermark.domain.Publication;
+import com.yushkevich.watermark.domain.Watermark;
+import com.yushkevich.watermark.domain.WatermarkJob;
+import com.yushkevich.watermark.dto.PublicationDTO;
+import com.yushkevich.watermark.exception.NotFoundException;
+import com.yushkevich.watermark.exception.WatermarkException;
+import com.yushkevich.watermark.repository.WatermarkJobRepository;
+import com.yushkevich.watermark.repository.WatermarkRepository;
+import com.yushkevich.watermark.service.PublicationService;
+import com.yushkevich.watermark.state.WatermarkStateMachine;
+import lombok.extern.slf4j.Slf4j;
+import rx.Observable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.yushkevich.watermark.domain.WatermarkJob.Status.QUEUED;
+import static com.yushkevich.watermark.domain.WatermarkJob.Status.RUNNING;
+import static com.yushkevich.watermark.utils.VirtualThreads.newBoundedThreadPerTaskExecutor;
+import static com.yushkevich.watermark.utils.VirtualThreads.threadFactory;
+import static com.yushkevich.watermark.utils.mapper.PublicationMapper.buildPublicationDTO;
+
+/**
+ * Dispatcher for persistent watermark jobs ({@link WatermarkJob}).
+ * Up to {@code watermark.job.maxInFlight} jobs are claimed from DB, so the backlog drains with configured concurrency.
+ * Fixed number of workers (virtual threads bounded by semaphore with {@code watermark.threads.virtual}) does blocking DB
+ * work only: reads publication and submits watermark generation by engine of
+ * publication content ({@link WatermarkEngines}) to hystrix collapser ({@link WatermarkCollapser}, one per content)
+ * without waiting for it, so all claimed jobs can be collapsed into one batch. Watermark of cacheable engine is taken
+ * from {@link WatermarkResultCache} and concurrent jobs with equal watermark properties share one generation
+ * ({@link WatermarkSingleFlight}). Generated watermark is finished by worker with one status-guarded
+ * update({@link WatermarkStateMachine}) in the same transaction which deletes the job, so watermark is never seen
+ * finished while its job still exists. Failed generation (empty fallback property) is retried up to
+ * {@code watermark.job.maxAttempts} times.
+ * On start up jobs interrupted by restart and PENDING watermarks without job are queued again.
+ */
+
+@Component
+@Slf4j
+public class WatermarkJobDispatcher implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    private final WatermarkJobRepository watermarkJobRepository;
+    private final WatermarkRepository watermarkRepository;
+    private final PublicationService publicationService;
+    private final WatermarkStateMachine watermarkStateMachine;
+    private final WatermarkEngines watermarkEngines;
+    private final WatermarkClientExecutor watermarkClientExecutor;
+    private final WatermarkResultCache watermarkResultCache;
+    private final WatermarkSingleFlight watermarkSingleFlight;
+    private final WatermarkHystrixCommandProperties watermarkHystrixCommandProperties;
+    private final WatermarkJobProperties watermarkJobProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExecutorService workers;
+    private final ScheduledExecutorService poller;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public WatermarkJobDispatcher(WatermarkJobRepository watermarkJobRepository,
+                                  WatermarkRepository watermarkRepository,
+                                  PublicationService publicationService,
+                                  WatermarkStateMachine watermarkStateMachine,
+                                  WatermarkEngines watermarkEngines,
+                                  WatermarkClientExecutor watermarkClientExecutor,
+                                  WatermarkResultCache watermarkResultCache,
+                                  WatermarkSingleFlight watermarkSingleFlight,
+                                  WatermarkHystrixCommandProperties watermarkHystrixCommandProperties,
+                                  WatermarkJobProperties watermarkJobProperties,
+                                  ThreadsProperties threadsProperties,
+                                  PlatformTransactionManager transactionManager) {
+        this.watermarkJobRepository = watermarkJobRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.publicationService = publicationService;
+        this.watermarkStateMachine = watermarkStateMachine;
+        this.watermarkEngines = watermarkEngines;
+        this.watermarkClientExecutor = watermarkClientExecutor;
+        this.watermarkResultCache = watermarkResultCache;
+        this.watermarkSingleFlight = watermarkSingleFlight;
+        this.watermarkHystrixCommandProperties = watermarkHystrixCommandProperties;
+        this.watermarkJobProperties = watermarkJobProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // every claimed job has at most one task for workers, so virtual workers never wait above maxInFlight
+        this.workers = threadsProperties.isVirtual()
+                ? newBoundedThreadPerTaskExecutor("watermark-job-", watermarkJobProperties.getWorkers(),
+                watermarkJobProperties.getMaxInFlight())
+                : Executors.newFixedThreadPool(watermarkJobProperties.getWorkers(),
+                threadFactory("watermark-job-", false));
+        this.poller = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("watermark-job-poller").setDaemon(true).build());
+    }
+
+    /**
+     * Stores job for watermark (in PENDING status) and wakes up dispatcher.
+     *
+     * @param watermarkId   Id of watermark to generate
+     * @param publicationId Id of watermarked publication
+     * @param content       Content of publication
+     */
+    public void submit(UUID watermarkId, Long publicationId, Content content) {
+        enqueue(watermarkId, publicationId, content);
+        poller.execute(this::dispatch);
+    }
+
+    /**
+     * Bulk version of {@link #submit(UUID, Long, Content)}, jobs are stored with one batch. Watermarks must not have job yet.
+     *
+     * @param watermarks PENDING watermark ids by publication ids
+     * @param content    Content of publications
+     */
+    public void submitAll(Map<Long, UUID> watermarks, Content content) {
+        final List<WatermarkJob> jobs = new ArrayList<>(watermarks.size());
+        watermarks.forEach((publicationId, watermarkId) -> jobs.add(WatermarkJob.builder()
+                .watermarkId(watermarkId)
+                .publicationId(publicationId)
+                .content(content.getName())
+                .status(QUEUED.getName())
+                .build()));
+        watermarkJobRepository.save(jobs);
+        log.debug("::submitAll {} jobs for {}", jobs.size(), content);
+        poller.execute(this::dispatch);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        recover();
+        final int pollInterval = watermarkJobProperties.getPollIntervalInMilliseconds();
+        poller.scheduleWithFixedDelay(this::dispatch, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        poller.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    void recover() {
+        final int requeued = watermarkJobRepository.requeueRunning();
+        final List<Watermark> orphans = watermarkRepository.findPendingWithoutJob();
+        orphans.forEach(watermark -> enqueue(watermark.getId(), watermark.getPublication().getId(),
+                watermark.getPublication().getContent()));
+        log.info("::recover re-queued {} interrupted jobs and {} PENDING watermarks without job", requeued, orphans.size());
+    }
+
+    /**
+     * Claims queued jobs up to {@code watermark.job.maxInFlight} jobs in flight.
+     */
+    synchronized void dispatch() {
+        try {
+            final int capacity = watermarkJobProperties.getMaxInFlight() - inFlight.get();
+            if (capacity <= 0) {
+                return;
+            }
+
+            final List<WatermarkJob> jobs = watermarkJobRepository.findByStatusOrderByIdAsc(QUEUED.getName(),
+                    new PageRequest(0, capacity));
+            for (WatermarkJob job : jobs) {
+                if (watermarkJobRepository.transition(job.getId(), QUEUED.getName(), RUNNING.getName(), 1) == 1) {
+                    log.debug("::dispatch claimed {}", job);
+                    inFlight.incrementAndGet();
+                    execute(job, () -> start(job));
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failure dispatch watermark jobs", e);
+        }
+    }
+
+    private void enqueue(UUID watermarkId, Long publicationId, Content content) {
+        if (watermarkJobRepository.existsByWatermarkId(watermarkId)) {
+            log.debug("::enqueue job already exists for {}", watermarkId);
+            return;
+        }
+
+        final WatermarkJob job = watermarkJobRepository.save(WatermarkJob.builder()
+                .watermarkId(watermarkId)
+                .publicationId(publicationId)
+                .content(content.getName())
+                .status(QUEUED.getName())
+                .build());
+        log.debug("::enqueue {}", job);
+    }
+
+    /**
+     * Reads publication and submits watermark generation, job is completed by {@link #finish} or
+     * {@link #handleFailure} once watermark is generated.
+     */
+    private void start(WatermarkJob job) {
+        try {
+            final Publication publication = publicationService.find(job.getPublicationId(), job.getContent());
+            final WatermarkRequest watermarkRequest = new WatermarkRequest(publication.getId(),
+                    publication.getContent(), publication.getWatermarkProperties());
+            final WatermarkEngine watermarkEngine = watermarkEngines.get(publication.getContent());
+            final String engineName = watermarkEngines.getName(publication.getContent());
+            final List<String> watermarkProperties = watermarkRequest.getWatermarkProperties();
+            final Observable<String> watermarkProperty = watermarkEngine.isCacheable()
+                    ? watermarkResultCache.get(engineName, watermarkProperties)
+                    .map(Observable::just)
+                    .orElseGet(() -> watermarkSingleFlight.generate(engineName, watermarkProperties,
+                            () -> generateWatermark(job, watermarkRequest, watermarkEngine, engineName)))
+                    : generateWatermark(job, watermarkRequest, watermarkEngine, engineName);
+
+            watermarkProperty.subscribe(
+                    property -> execute(job, () -> finish(job, property, publication)),
+                    ex -> execute(job, () -> {
+                        handleFailure(job, ex);
+                        release();
+                    }));
+        } catch (NotFoundException e) {
+            log.warn("Publication for {} does not exist anymore", job);
+            watermarkJobRepository.delete(job.getId());
+            release();
+        } catch (Exception e) {
+            handleFailure(job, e);
+            release();
+        }
+    }
+
+    private void finish(WatermarkJob job, String watermarkProperty, Publication publication) {
+        try {
+            complete(job, watermarkProperty, buildPublicationDTO(publication));
+            log.debug("::finish completed {}", job);
+        } catch (Exception e) {
+            handleFailure(job, e);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Deletes job and finishes its watermark in one transaction. Job is deleted first: status change is published after
+     * commit, so watermark requested again by notified client always gets a new job.
+     */
+    private void complete(WatermarkJob job, String watermarkProperty, PublicationDTO document) {
+        transactionTemplate.execute(status -> {
+            watermarkJobRepository.removeById(job.getId());
+            return watermarkStateMachine.finish(job.getWatermarkId(), watermarkProperty, document);
+        });
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        poller.execute(this::dispatch);
+    }
+
+    private void execute(WatermarkJob job, Runnable task) {
+        try {
+            workers.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Dispatcher is stopped, {} will be re-queued on restart", job);
+        }
+    }
+
+    /**
+     * Generates watermark via hystrix collapser of content, watermark of cacheable engine is cached before generation
+     * leaves single flight, so subsequent jobs with equal properties take it from cache. Empty property of collapser
+     * (fallback of failed, timed out or rejected batch) is emitted as error, so the job is retried.
+     */
+    private Observable<String> generateWatermark(WatermarkJob job, WatermarkRequest watermarkRequest,
+                                                 WatermarkEngine watermarkEngine, String engineName) {
+        return WatermarkCollapser.builder()
+                // collapser is global per key, so engines of different contents don't share batches
+                .collapserKey(watermarkHystrixCommandProperties.getCollapserKey() + "-" +
+                        watermarkRequest.getContent().getName())
+                .groupKey(watermarkHystrixCommandProperties.getGroupKey())
+                .timeout(watermarkHystrixCommandProperties.getTimeoutInMilliseconds())
+                .timerDelay(watermarkHystrixCommandProperties.getCollapserTimerDelayInMilliseconds())
+                .maxRequestsInBatch(watermarkHystrixCommandProperties.getCollapserMaxRequestsInBatch())
+                .watermarkId(job.getWatermarkId())
+                .watermarkRequest(watermarkRequest)
+                .watermarkEngine(watermarkEngine)
+                .watermarkClientExecutor(watermarkClientExecutor)
+                .build()
+                .observe()
+                .flatMap(watermarkProperty -> watermarkProperty.isEmpty()
+                        ? Observable.<String>error(new WatermarkException(String.format(
+                        "Watermark generation failed for %s", job.getWatermarkId())))
+                        : Observable.just(watermarkProperty))
+                .doOnNext(watermarkProperty -> {
+                    if (watermarkEngine.isCacheable()) {
+                        watermarkResultCache.put(engineName, watermarkRequest.getWatermarkProperties(),
+                                watermarkProperty);
+                    }
+                });
+    }
+
+    private void handleFailure(WatermarkJob job, Throwable e) {
+        final int attempts = job.getAttempts() + 1;
+        log.error("Failure run {} (attempt {}/{})", job, attempts, watermarkJobProperties.getMaxAttempts(), e);
+        try {
+            if (attempts < watermarkJobProperties.getMaxAttempts()) {
+                watermarkJobRepository.transition(job.getId(), RUNNING.getName(), QUEUED.getName(), 0);
+            } else {
+                complete(job, "", null);
+            }
+        } catch (Exception ex) {
+            log.error("Failure handle failed {}, it will be re-queued on restart", job, ex);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.yushkevich.watermark.job;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "watermark.job")
+@Getter
+@Setter
+public class WatermarkJobProperties {
+    private int workers;
+    private int maxInFlight;
+    private int pollIntervalInMilliseconds;
+    private int maxAttempts;
+}
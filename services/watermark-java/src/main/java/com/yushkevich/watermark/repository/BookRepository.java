@@ -1,9 +1,26 @@
 package com.yushkevich.watermark.repository;
 
 import com.yushkevich.watermark.domain.Book;
+import com.yushkevich.watermark.domain.PublicationSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import javax.transaction.Transactional;
 
 @Transactional
 public interface BookRepository extends PublicationRepository<Book> {
+
+    @Override
+    @Query(value = "select new com.yushkevich.watermark.domain.PublicationSummary(b.id, b.content, b.title, b.author, " +
+            "b.topic) from Book b",
+            countQuery = "select count(b) from Book b")
+    Page<PublicationSummary> findAllSummaries(Pageable pageable);
+
+    @Override
+    @Query("select new com.yushkevich.watermark.domain.PublicationSummary(b.id, b.content, b.title, b.author, " +
+            "b.topic) from Book b where b.id > :id")
+    Slice<PublicationSummary> findSummariesByIdGreaterThan(@Param("id") Long id, Pageable pageable);
 }
@@ -1,9 +1,26 @@
 package com.yushkevich.watermark.repository;
 
 import com.yushkevich.watermark.domain.Journal;
+import com.yushkevich.watermark.domain.PublicationSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import javax.transaction.Transactional;
 
 @Transactional
 public interface JournalRepository extends PublicationRepository<Journal> {
+
+    @Override
+    @Query(value = "select new com.yushkevich.watermark.domain.PublicationSummary(j.id, j.content, j.title, j.author) " +
+            "from Journal j",
+            countQuery = "select count(j) from Journal j")
+    Page<PublicationSummary> findAllSummaries(Pageable pageable);
+
+    @Override
+    @Query("select new com.yushkevich.watermark.domain.PublicationSummary(j.id, j.content, j.title, j.author) " +
+            "from Journal j where j.id > :id")
+    Slice<PublicationSummary> findSummariesByIdGreaterThan(@Param("id") Long id, Pageable pageable);
 }
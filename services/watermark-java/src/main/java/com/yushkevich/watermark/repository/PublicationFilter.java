@@ -0,0 +1,22 @@
+package com.yushkevich.watermark.repository;
+
+import com.yushkevich.watermark.domain.Book;
+import com.yushkevich.watermark.domain.Content;
+import com.yushkevich.watermark.domain.Watermark;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Selection of publications of one content for bulk operations. Absent criteria are not applied.
+ */
+
+@Value
+@Builder
+public class PublicationFilter {
+    private Content content;
+    private List<Long> publicationIds;
+    private Book.Topic topic; // for books only
+    private Watermark.Status watermarkStatus; // publications without watermark are considered NEW
+}
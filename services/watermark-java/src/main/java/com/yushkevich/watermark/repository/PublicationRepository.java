@@ -1,15 +1,64 @@
 package com.yushkevich.watermark.repository;
 
 import com.yushkevich.watermark.domain.Publication;
+import com.yushkevich.watermark.domain.PublicationSummary;
+import com.yushkevich.watermark.domain.Watermark;
+import com.yushkevich.watermark.domain.WatermarkState;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.query.Param;
 
 @NoRepositoryBean
 public interface PublicationRepository<T extends Publication> extends JpaRepository<T, Long> {
 
+    /**
+     * Publication together with its watermark (watermark status is validated/changed on every modification).
+     */
+    @EntityGraph(attributePaths = "watermark")
     T findById(Long id);
 
     Page<T> findAll(Pageable pageable);
+
+    /**
+     * Read model for listing: only listed columns are selected, no entities are put into persistence context.
+     * Query is declared by every concrete repository, as projected columns depend on publication type.
+     */
+    Page<PublicationSummary> findAllSummaries(Pageable pageable);
+
+    /**
+     * Keyset pagination of read model: seeks by primary key, no count query is executed.
+     */
+    Slice<PublicationSummary> findSummariesByIdGreaterThan(Long id, Pageable pageable);
+
+    /**
+     * @return Publication id with id, status and version of its watermark or {@code null} if publication doesn't exist
+     */
+    @Query("select new com.yushkevich.watermark.domain.WatermarkState(p.id, w.id, w.status, w.version) " +
+            "from #{#entityName} p left join p.watermark w where p.id = :id")
+    WatermarkState findWatermarkState(@Param("id") Long id);
+
+    /**
+     * Links watermark to publication only if publication has no watermark yet.
+     *
+     * @return number of updated publications (0 or 1)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update #{#entityName} p set p.watermark = :watermark, p.version = p.version + 1, " +
+            "p.updated = current_timestamp() where p.id = :id and p.watermark is null")
+    int attachWatermark(@Param("id") Long id, @Param("watermark") Watermark watermark);
+
+    /**
+     * Deletes publication without loading it (watermark has to be deleted separately).
+     *
+     * @return number of deleted publications (0 or 1)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("delete from #{#entityName} p where p.id = :id")
+    int removeById(@Param("id") Long id);
 }
@@ -0,0 +1,78 @@
+package com.yushkevich.watermark.repository;
+
+import com.google.common.collect.Lists;
+import com.yushkevich.watermark.domain.Book;
+import com.yushkevich.watermark.domain.Content;
+import com.yushkevich.watermark.domain.Watermark;
+import com.yushkevich.watermark.dto.PublicationDTO;
+import com.yushkevich.watermark.dto.TicketDTO;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.yushkevich.watermark.domain.Watermark.Status.SUCCESS;
+import static com.yushkevich.watermark.repository.WatermarkRepositoryCustom.MAX_IDS_PER_QUERY;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Read-only JDBC access to tickets: watermark and its publication are read by one query per (up to
+ * {@link WatermarkRepositoryCustom#MAX_IDS_PER_QUERY}) ticket ids and mapped directly to {@link TicketDTO},
+ * without entities and persistence context.
+ */
+
+@Repository
+public class TicketJdbcRepository {
+
+    private static final String FIND_TICKETS = "select w.id, w.status, p.id, p.content, p.title, p.author, p.topic " +
+            "from watermarks w left join publications p on p.watermark_id = w.id where w.id in (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TicketJdbcRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param ticketIds Ids of tickets/watermarks
+     * @return Tickets by id, removed ones are absent. Document is set for SUCCESS tickets only.
+     */
+    public Map<UUID, TicketDTO> findTickets(Collection<UUID> ticketIds) {
+        final Map<UUID, TicketDTO> tickets = new HashMap<>(ticketIds.size() * 4 / 3 + 1);
+        for (List<UUID> ids : Lists.partition(new ArrayList<>(ticketIds), MAX_IDS_PER_QUERY)) {
+            final MapSqlParameterSource parameters = new MapSqlParameterSource("ids",
+                    ids.stream().map(TicketJdbcRepository::toBytes).collect(toList()));
+            jdbcTemplate.query(FIND_TICKETS, parameters, resultSet -> {
+                final UUID id = toUuid(resultSet.getBytes(1));
+                final Watermark.Status status = Watermark.Status.findByName(resultSet.getString(2));
+                final PublicationDTO document = SUCCESS == status ? new PublicationDTO(resultSet.getLong(3),
+                        Content.findByName(resultSet.getString(4)), resultSet.getString(5), resultSet.getString(6),
+                        Book.Topic.findByName(resultSet.getString(7))) : null;
+                tickets.put(id, new TicketDTO(id, status, document));
+            });
+        }
+        return tickets;
+    }
+
+    /**
+     * Same layout as UUIDs are stored by Hibernate in BINARY(16) column.
+     */
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    private static UUID toUuid(byte[] bytes) {
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
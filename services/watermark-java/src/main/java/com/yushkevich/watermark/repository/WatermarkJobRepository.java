@@ -0,0 +1,50 @@
+package com.yushkevich.watermark.repository;
+
+import com.yushkevich.watermark.domain.WatermarkJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.transaction.Transactional;
+import java.util.List;
+import java.util.UUID;
+
+@Transactional
+public interface WatermarkJobRepository extends JpaRepository<WatermarkJob, Long> {
+
+    List<WatermarkJob> findByStatusOrderByIdAsc(String status, Pageable pageable);
+
+    boolean existsByWatermarkId(UUID watermarkId);
+
+    /**
+     * Moves job from one status to another only if it is still in expected status (compare-and-set),
+     * so a job is claimed by exactly one worker.
+     *
+     * @return number of updated jobs (0 or 1)
+     */
+    @Modifying
+    @Query("update WatermarkJob j set j.status = :to, j.attempts = j.attempts + :attempt " +
+            "where j.id = :id and j.status = :from")
+    int transition(@Param("id") Long id, @Param("from") String from, @Param("to") String to,
+                   @Param("attempt") int attempt);
+
+    /**
+     * Deletes job with one statement, so it is executed in order with other bulk updates of the transaction.
+     *
+     * @return number of deleted jobs (0 or 1)
+     */
+    @Modifying
+    @Query("delete from WatermarkJob j where j.id = :id")
+    int removeById(@Param("id") Long id);
+
+    /**
+     * Jobs which were running when service stopped are queued again.
+     *
+     * @return number of re-queued jobs
+     */
+    @Modifying
+    @Query("update WatermarkJob j set j.status = 'QUEUED' where j.status = 'RUNNING'")
+    int requeueRunning();
+}
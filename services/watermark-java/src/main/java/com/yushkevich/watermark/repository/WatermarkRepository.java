@@ -1,11 +1,72 @@
 package com.yushkevich.watermark.repository;
 
 import com.yushkevich.watermark.domain.Watermark;
+import com.yushkevich.watermark.domain.WatermarkState;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
-public interface WatermarkRepository extends JpaRepository<Watermark, UUID> {
+public interface WatermarkRepository extends JpaRepository<Watermark, UUID>, WatermarkRepositoryCustom {
 
+    /**
+     * Watermark together with its publication (ticket is built from both).
+     */
+    @EntityGraph(attributePaths = "publication")
     Watermark findById(UUID id);
+
+    /**
+     * PENDING watermarks without generation job, e.g. job was not stored because service stopped in between.
+     */
+    @Query("select w from Watermark w join fetch w.publication where w.status = 'PENDING' " +
+            "and not exists (select j.id from WatermarkJob j where j.watermarkId = w.id)")
+    List<Watermark> findPendingWithoutJob();
+
+    /**
+     * Moves watermarks to PENDING with one statement, watermarks which are already PENDING are not touched.
+     *
+     * @return number of updated watermarks
+     */
+    @Modifying
+    @Query("update Watermark w set w.status = 'PENDING', w.property = null, w.version = w.version + 1, " +
+            "w.updated = current_timestamp() where w.id in :ids and w.status <> 'PENDING'")
+    int markPending(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * @return Publication id with id, status and version of watermark or {@code null} if watermark doesn't exist
+     */
+    @Query("select new com.yushkevich.watermark.domain.WatermarkState(p.id, w.id, w.status, w.version) " +
+            "from Publication p join p.watermark w where w.id = :id")
+    WatermarkState findState(@Param("id") UUID id);
+
+    /**
+     * Compare-and-set by version: sets status and property only if watermark was not changed since given version.
+     *
+     * @return number of updated watermarks (0 if watermark was changed concurrently or doesn't exist)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Watermark w set w.status = :status, w.property = :property, w.version = w.version + 1, " +
+            "w.updated = current_timestamp() where w.id = :id and w.version = :version")
+    int compareAndSet(@Param("id") UUID id, @Param("version") Long version, @Param("status") String status,
+                      @Param("property") String property);
+
+    /**
+     * Compare-and-set by status: sets status and property only if watermark is in expected status.
+     *
+     * @return number of updated watermarks (0 if watermark is in other status or doesn't exist)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Watermark w set w.status = :status, w.property = :property, w.version = w.version + 1, " +
+            "w.updated = current_timestamp() where w.id = :id and w.status = :expectedStatus")
+    int transition(@Param("id") UUID id, @Param("expectedStatus") String expectedStatus, @Param("status") String status,
+                   @Param("property") String property);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Watermark w where w.id = :id")
+    int removeById(@Param("id") UUID id);
 }
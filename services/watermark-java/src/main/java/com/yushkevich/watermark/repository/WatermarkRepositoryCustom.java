@@ -0,0 +1,33 @@
+package com.yushkevich.watermark.repository;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Queries and inserts of bulk watermarking, built from {@link PublicationFilter}.
+ */
+public interface WatermarkRepositoryCustom {
+
+    /**
+     * Max number of ids bound to one IN clause, lists of ids are queried/updated by partitions of this size.
+     */
+    int MAX_IDS_PER_QUERY = 500;
+
+    /**
+     * Watermarks of filtered publications which can be moved to PENDING: not PENDING and without generation job.
+     * Watermark rows are locked till the end of transaction.
+     *
+     * @param filter Publication filter
+     * @return Watermark ids by publication ids (ordered by publication id)
+     */
+    Map<Long, UUID> findWatermarkCandidates(PublicationFilter filter);
+
+    /**
+     * Creates PENDING watermarks of filtered publications which have never been watermarked. Publications are loaded
+     * by pages and detached after their watermarks are inserted, so persistence context is cleared.
+     *
+     * @param filter Publication filter
+     * @return Created watermark ids by publication ids (ordered by publication id)
+     */
+    Map<Long, UUID> createPendingWatermarks(PublicationFilter filter);
+}
@@ -0,0 +1,161 @@
+package com.yushkevich.watermark.repository;
+
+import com.google.common.collect.Lists;
+import com.yushkevich.watermark.domain.Book;
+import com.yushkevich.watermark.domain.Journal;
+import com.yushkevich.watermark.domain.Publication;
+import com.yushkevich.watermark.domain.Watermark;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import static com.yushkevich.watermark.domain.Watermark.Status.NEW;
+import static com.yushkevich.watermark.domain.Watermark.Status.PENDING;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Implementation of {@link WatermarkRepositoryCustom}, criteria of {@link PublicationFilter} are appended to JPQL.
+ */
+public class WatermarkRepositoryImpl implements WatermarkRepositoryCustom {
+
+    static final int PAGE_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Map<Long, UUID> findWatermarkCandidates(PublicationFilter filter) {
+        if (isEmptySelection(filter) || filter.getWatermarkStatus() == PENDING) {
+            return emptyMap();
+        }
+
+        final Map<Long, UUID> candidates = new LinkedHashMap<>();
+        for (List<Long> publicationIds : partitionPublicationIds(filter)) {
+            final StringBuilder jpql = new StringBuilder("select p.id, w.id from ")
+                    .append(entityName(filter)).append(" p join p.watermark w where w.status <> :pending ")
+                    .append("and not exists (select j.id from WatermarkJob j where j.watermarkId = w.id)");
+            if (nonNull(filter.getWatermarkStatus())) {
+                jpql.append(" and w.status = :status");
+            }
+            final TypedQuery<Object[]> query = entityManager.createQuery(
+                    appendCriteria(jpql, filter, publicationIds), Object[].class)
+                    .setParameter("pending", PENDING.getName());
+            if (nonNull(filter.getWatermarkStatus())) {
+                query.setParameter("status", filter.getWatermarkStatus().getName());
+            }
+
+            for (Object[] row : setCriteria(query, filter, publicationIds).getResultList()) {
+                candidates.put((Long) row[0], (UUID) row[1]);
+            }
+        }
+
+        // watermarks are locked separately, as not every database supports locking of joined rows
+        final Set<UUID> locked = new HashSet<>(candidates.size() * 4 / 3 + 1);
+        for (List<UUID> ids : Lists.partition(new ArrayList<>(candidates.values()), MAX_IDS_PER_QUERY)) {
+            locked.addAll(entityManager.createQuery(
+                    "select w.id from Watermark w where w.id in :ids and w.status <> :pending", UUID.class)
+                    .setParameter("ids", ids)
+                    .setParameter("pending", PENDING.getName())
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .getResultList());
+        }
+        candidates.values().retainAll(locked);
+        return candidates;
+    }
+
+    @Override
+    public Map<Long, UUID> createPendingWatermarks(PublicationFilter filter) {
+        if (isEmptySelection(filter) || (nonNull(filter.getWatermarkStatus()) && filter.getWatermarkStatus() != NEW)) {
+            return emptyMap();
+        }
+
+        final Map<Long, UUID> created = new LinkedHashMap<>();
+        for (List<Long> publicationIds : partitionPublicationIds(filter)) {
+            List<Publication> page;
+            long afterId = Long.MIN_VALUE;
+            do {
+                final StringBuilder jpql = new StringBuilder("select p from ")
+                        .append(entityName(filter)).append(" p where p.watermark is null and p.id > :afterId");
+                page = setCriteria(entityManager.createQuery(appendCriteria(jpql, filter, publicationIds),
+                        Publication.class), filter, publicationIds)
+                        .setParameter("afterId", afterId)
+                        .setMaxResults(PAGE_SIZE)
+                        .getResultList();
+                for (Publication publication : page) {
+                    publication.setWatermark(Watermark.builder()
+                            .publication(publication)
+                            .status(PENDING.getName())
+                            .build());
+                }
+                // watermarks are inserted in JDBC batches, page is detached so memory doesn't grow with selection
+                entityManager.flush();
+                for (Publication publication : page) {
+                    created.put(publication.getId(), publication.getWatermark().getId());
+                    afterId = publication.getId();
+                }
+                entityManager.clear();
+            } while (page.size() == PAGE_SIZE);
+        }
+        return created;
+    }
+
+    private static boolean isEmptySelection(PublicationFilter filter) {
+        return nonNull(filter.getPublicationIds()) && filter.getPublicationIds().isEmpty();
+    }
+
+    private static String entityName(PublicationFilter filter) {
+        switch (filter.getContent()) {
+            case BOOK:
+                return Book.class.getSimpleName();
+            case JOURNAL:
+                return Journal.class.getSimpleName();
+            default:
+                throw new IllegalArgumentException(String.format("Unknown content %s", filter.getContent()));
+        }
+    }
+
+    /**
+     * Publication ids of filter are bound by partitions of {@link #MAX_IDS_PER_QUERY}, sorted so results of partitions
+     * are ordered by publication id. Filter without ids is one partition ({@code null}).
+     */
+    private static List<List<Long>> partitionPublicationIds(PublicationFilter filter) {
+        if (isNull(filter.getPublicationIds())) {
+            return singletonList(null);
+        }
+        return Lists.partition(new ArrayList<>(new TreeSet<>(filter.getPublicationIds())), MAX_IDS_PER_QUERY);
+    }
+
+    private static String appendCriteria(StringBuilder jpql, PublicationFilter filter, List<Long> publicationIds) {
+        if (nonNull(publicationIds)) {
+            jpql.append(" and p.id in :ids");
+        }
+        if (nonNull(filter.getTopic())) {
+            jpql.append(" and p.topic = :topic");
+        }
+        return jpql.append(" order by p.id").toString();
+    }
+
+    private static <T> TypedQuery<T> setCriteria(TypedQuery<T> query, PublicationFilter filter,
+                                                 List<Long> publicationIds) {
+        if (nonNull(publicationIds)) {
+            query.setParameter("ids", publicationIds);
+        }
+        if (nonNull(filter.getTopic())) {
+            query.setParameter("topic", filter.getTopic().getName());
+        }
+        return query;
+    }
+}
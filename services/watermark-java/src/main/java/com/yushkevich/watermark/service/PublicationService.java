@@ -2,9 +2,15 @@ package com.yushkevich.watermark.service;
 
 import com.yushkevich.watermark.domain.Content;
 import com.yushkevich.watermark.domain.Publication;
-import com.yushkevich.watermark.domain.Watermark;
+import com.yushkevich.watermark.domain.PublicationSummary;
+import com.yushkevich.watermark.exception.WatermarkException;
+import com.yushkevich.watermark.repository.PublicationFilter;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * Simple CRUD operations for Books/Journals.
@@ -25,9 +31,45 @@ public interface PublicationService {
 
     Publication find(Long publicationId, Content content);
 
-    Page<Publication> findAllByPage(Pageable pageable, Content content);
+    /**
+     * Read-only listing, publications are fetched as projections(not managed entities).
+     *
+     * @param pageable Page request
+     * @param content  Content of publications
+     * @return Page of publication summaries
+     */
+    Page<PublicationSummary> findAllByPage(Pageable pageable, Content content);
+
+    /**
+     * Read-only keyset pagination ordered by id, latency doesn't depend on position in the list.
+     *
+     * @param afterId Id of last entry from previous slice or {@code null} for the first slice
+     * @param size    Size of slice
+     * @param content Content of publications
+     * @return Slice of publication summaries
+     */
+    Slice<PublicationSummary> findAllAfter(Long afterId, int size, Content content);
 
-    Watermark setWatermark(Long publicationId, Content content);
+    long count(Content content);
 
-    void updateWatermarkStatus(Publication publication, String watermarkProperty);
+    /**
+     * Moves watermark of publication to PENDING(creates it if absent) with one read and one conditional update.
+     * Watermark is finished by {@link com.yushkevich.watermark.state.WatermarkStateMachine}.
+     *
+     * @param publicationId Id of publication
+     * @param content       Content of publication
+     * @return Id of PENDING watermark
+     * @throws WatermarkException if watermark is already PENDING
+     */
+    UUID setWatermark(Long publicationId, Content content);
+
+    /**
+     * Bulk version of {@link #setWatermark(Long, Content)}: watermarks of filtered publications are moved to PENDING
+     * with set-based updates, missing watermarks are created. PENDING watermarks and watermarks with generation
+     * job are skipped.
+     *
+     * @param filter Publication filter
+     * @return Ids of PENDING watermarks by publication ids
+     */
+    Map<Long, UUID> setWatermarks(PublicationFilter filter);
 }
@@ -1,11 +1,15 @@
 package com.yushkevich.watermark.service;
 
+import com.yushkevich.watermark.cache.CachedTicket;
 import com.yushkevich.watermark.domain.Content;
 import com.yushkevich.watermark.domain.Publication;
-import com.yushkevich.watermark.domain.Watermark;
+import com.yushkevich.watermark.dto.TicketDTO;
 import com.yushkevich.watermark.exception.WatermarkException;
+import com.yushkevich.watermark.repository.PublicationFilter;
 import rx.Observable;
 
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -27,12 +31,38 @@ public interface WatermarkService {
      */
     Observable<UUID> watermarkDocument(Long publicationId, Content content) throws WatermarkException;
 
+    /**
+     * Bulk version of {@link #watermarkDocument(Long, Content)}: watermarks of all filtered publications (except of
+     * PENDING ones) are moved to PENDING at once and generation jobs are submitted.
+     *
+     * @param filter Publication filter
+     * @return Observable UUIDs of Tickets/Watermarks by publication ids
+     */
+    Observable<Map<Long, UUID>> watermarkDocuments(PublicationFilter filter);
+
     /**
      * Polls status of watermark. If the watermarking is finished the
-     * document can be retrieved with the ticket.
+     * document can be retrieved with the ticket. Tickets are served from cache.
      *
      * @param ticketId Id of ticket/watermark
      * @return Ticket with optional document
      */
-    Observable<Watermark> pollWatermarkStatus(UUID ticketId);
+    Observable<TicketDTO> pollWatermarkStatus(UUID ticketId);
+
+    /**
+     * Variant of {@link #pollWatermarkStatus(UUID)} for large number of concurrent polls: tickets missing in cache are
+     * read by plain JDBC queries, concurrent polls are read together by one query.
+     *
+     * @param ticketId Id of ticket/watermark
+     * @return Ticket with optional document
+     */
+    Observable<TicketDTO> pollWatermarkStatusInBatch(UUID ticketId);
+
+    /**
+     * Finished ticket never changes, so it can be served as is(already serialized) if it is cached.
+     *
+     * @param ticketId Id of ticket/watermark
+     * @return Serialized ticket if it is finished and cached
+     */
+    Optional<CachedTicket> findSerializedTicket(UUID ticketId);
 }
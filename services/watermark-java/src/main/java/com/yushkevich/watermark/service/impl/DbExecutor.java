@@ -0,0 +1,21 @@
+package com.yushkevich.watermark.service.impl;
+
+import com.yushkevich.watermark.ThreadsProperties;
+import com.yushkevich.watermark.utils.BoundedExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dedicated bounded pool for blocking JPA calls of {@link WatermarkServiceImpl}, so observables of the service are
+ * really asynchronous and request threads are released while DB is queried. Pool size ({@code watermark.db.poolSize})
+ * should not exceed size of connection pool, call submitted to saturated pool is rejected immediately.
+ * Pool state is exposed as {@code watermark.db.executor.*} metrics.
+ */
+
+@Component
+public class DbExecutor extends BoundedExecutor {
+
+    public DbExecutor(DbExecutorProperties dbExecutorProperties, ThreadsProperties threadsProperties) {
+        super("watermark.db.executor", dbExecutorProperties.getPoolSize(), dbExecutorProperties.getQueueCapacity(),
+                threadsProperties.isVirtual());
+    }
+}
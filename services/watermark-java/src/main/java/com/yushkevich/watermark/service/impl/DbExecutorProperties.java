@@ -0,0 +1,15 @@
+package com.yushkevich.watermark.service.impl;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "watermark.db")
+@Getter
+@Setter
+public class DbExecutorProperties {
+    private int poolSize;
+    private int queueCapacity;
+}
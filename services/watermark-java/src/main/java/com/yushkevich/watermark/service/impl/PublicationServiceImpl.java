@@ -1,28 +1,45 @@
 package com.yushkevich.watermark.service.impl;
 
+import com.google.common.collect.Lists;
 import com.yushkevich.watermark.domain.Content;
 import com.yushkevich.watermark.domain.Publication;
+import com.yushkevich.watermark.domain.PublicationSummary;
 import com.yushkevich.watermark.domain.Watermark;
+import com.yushkevich.watermark.domain.WatermarkState;
+import com.yushkevich.watermark.dto.TicketDTO;
+import com.yushkevich.watermark.event.WatermarkStatusChangedEvent;
 import com.yushkevich.watermark.exception.NotFoundException;
-import com.yushkevich.watermark.exception.WatermarkException;
 import com.yushkevich.watermark.repository.BookRepository;
 import com.yushkevich.watermark.repository.JournalRepository;
+import com.yushkevich.watermark.repository.PublicationFilter;
 import com.yushkevich.watermark.repository.PublicationRepository;
+import com.yushkevich.watermark.repository.WatermarkRepository;
 import com.yushkevich.watermark.service.PublicationService;
+import com.yushkevich.watermark.state.WatermarkStateMachine;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 import static com.yushkevich.watermark.domain.Watermark.Status.*;
-import static com.yushkevich.watermark.utils.mapper.PublicationMapper.getNullPropertyNames;
+import static com.yushkevich.watermark.repository.WatermarkRepositoryCustom.MAX_IDS_PER_QUERY;
+import static com.yushkevich.watermark.state.WatermarkStateMachine.pendingWatermarkException;
+import static com.yushkevich.watermark.utils.mapper.PublicationMapper.patchPublication;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
-import static org.springframework.beans.BeanUtils.copyProperties;
 
 @Component
 @AllArgsConstructor
@@ -32,6 +49,9 @@ public class PublicationServiceImpl implements PublicationService {
 
     private final BookRepository bookRepository;
     private final JournalRepository journalRepository;
+    private final WatermarkRepository watermarkRepository;
+    private final WatermarkStateMachine watermarkStateMachine;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @SuppressWarnings("unchecked")
@@ -47,20 +67,19 @@ public class PublicationServiceImpl implements PublicationService {
         final Long id = publication.getId();
         final PublicationRepository publicationRepository = resolveRepository(publication.getContent());
 
+        final WatermarkState watermarkState = Optional.ofNullable(publicationRepository.findWatermarkState(id))
+                .orElseThrow(NotFoundException::new);
+        // PENDING watermark is rejected before publication is changed, NEW watermark is left as it is
+        if (nonNull(watermarkState.getWatermarkId()) && NEW != watermarkState.getStatus()) {
+            watermarkStateMachine.moveTo(watermarkState, NEW);
+        }
+
         final Publication publicationToUpdate = Optional.ofNullable(publicationRepository.findById(id))
                 .orElseThrow(NotFoundException::new);
         log.debug("found publicationToUpdate {}", publicationToUpdate);
 
-        validateWatermarkStatus(id, publication.getContent());
-
-        copyProperties(publication, publicationToUpdate, getNullPropertyNames(publication));
-
-        final Watermark watermark = publicationToUpdate.getWatermark();
-        if (nonNull(watermark) && (FAILED.equals(watermark.getStatus()) || SUCCESS.equals(watermark.getStatus()))) {
-            watermark.setStatus(NEW.getName());
-            watermark.setProperty(null);
-        }
-        final Publication updatedPublication = (Publication) publicationRepository.save(publicationToUpdate);
+        patchPublication(publication, publicationToUpdate);
+        final Publication updatedPublication = (Publication) publicationRepository.saveAndFlush(publicationToUpdate);
 
         log.debug("updated {}", updatedPublication);
 
@@ -68,6 +87,7 @@ public class PublicationServiceImpl implements PublicationService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Publication find(Long publicationId, Content content) {
         final Publication publication = Optional.ofNullable(resolveRepository(content).findById(publicationId))
                 .orElseThrow(NotFoundException::new);
@@ -76,78 +96,88 @@ public class PublicationServiceImpl implements PublicationService {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public void delete(Long publicationId, Content content) {
         final PublicationRepository publicationRepository = resolveRepository(content);
 
-        Optional.ofNullable(publicationRepository.findById(publicationId))
+        final WatermarkState watermarkState = Optional.ofNullable(publicationRepository.findWatermarkState(publicationId))
                 .orElseThrow(NotFoundException::new);
 
-        //noinspection unchecked
-        publicationRepository.delete(publicationId);
+        publicationRepository.removeById(publicationId);
+
+        final UUID watermarkId = watermarkState.getWatermarkId();
+        if (nonNull(watermarkId)) {
+            watermarkRepository.removeById(watermarkId);
+            eventPublisher.publishEvent(new WatermarkStatusChangedEvent(watermarkId, null));
+        }
 
         log.debug("deleted publication with id = {}", publicationId);
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    public Page<Publication> findAllByPage(Pageable pageable, Content content) {
-        final Page page = resolveRepository(content).findAll(pageable);
+    @Transactional(readOnly = true)
+    public Page<PublicationSummary> findAllByPage(Pageable pageable, Content content) {
+        final Page<PublicationSummary> page = resolveRepository(content).findAllSummaries(pageable);
         log.debug("page {} from {} has {} publications", page.getNumber(), page.getTotalElements(), page.getContent().size());
         return page;
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    public Watermark setWatermark(Long publicationId, Content content) {
+    @Transactional(readOnly = true)
+    public Slice<PublicationSummary> findAllAfter(Long afterId, int size, Content content) {
+        final Slice<PublicationSummary> slice = resolveRepository(content).findSummariesByIdGreaterThan(
+                isNull(afterId) ? 0L : afterId, new PageRequest(0, size, Sort.Direction.ASC, "id"));
+        log.debug("slice after {} has {} publications", afterId, slice.getNumberOfElements());
+        return slice;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long count(Content content) {
+        return resolveRepository(content).count();
+    }
+
+    @Override
+    public UUID setWatermark(Long publicationId, Content content) {
         log.debug("::setWatermark [{}/{}]", publicationId, content);
+        final PublicationRepository publicationRepository = resolveRepository(content);
 
-        validateWatermarkStatus(publicationId, content);
+        final WatermarkState watermarkState = Optional.ofNullable(publicationRepository.findWatermarkState(publicationId))
+                .orElseThrow(NotFoundException::new);
 
-        final Publication publication = find(publicationId, content);
-        final Watermark watermark = publication.getWatermark();
-        if (isNull(watermark)) {
-            publication.setWatermark(Watermark.builder()
-                    .publication(publication)
-                    .status(PENDING.getName())
-                    .build());
+        UUID watermarkId = watermarkState.getWatermarkId();
+        if (isNull(watermarkId)) {
+            final Watermark watermark = watermarkRepository.saveAndFlush(Watermark.builder().status(PENDING.getName()).build());
+            watermarkId = watermark.getId();
+            if (publicationRepository.attachWatermark(publicationId, watermark) == 0) {
+                // watermark was attached concurrently
+                throw pendingWatermarkException(publicationId);
+            }
+            eventPublisher.publishEvent(new WatermarkStatusChangedEvent(watermarkId, new TicketDTO(watermarkId, PENDING, null)));
         } else {
-            watermark.setStatus(PENDING.getName());
-            watermark.setProperty(null);
+            watermarkStateMachine.moveTo(watermarkState, PENDING);
         }
 
-        final Watermark updatedWatermark = ((Publication) resolveRepository(content).save(publication)).getWatermark();
-        log.debug("publication with id={} related to watermark {}", publication.getId(), updatedWatermark);
-        return updatedWatermark;
+        log.debug("publication with id={} related to watermark {}", publicationId, watermarkId);
+        return watermarkId;
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    public void updateWatermarkStatus(Publication publication, String watermarkProperty) {
-        final Watermark watermark = publication.getWatermark();
-        if (watermarkProperty.isEmpty()) {
-            watermark.setStatus(FAILED.getName());
-        } else {
-            watermark.setProperty(watermarkProperty);
-            watermark.setStatus(SUCCESS.getName());
-        }
-        log.debug("::updateWatermarkStatus [{}/{}/{}]", watermark.getStatus(), publication, watermarkProperty);
+    public Map<Long, UUID> setWatermarks(PublicationFilter filter) {
+        log.debug("::setWatermarks {}", filter);
 
-        resolveRepository(publication.getContent()).save(publication);
-    }
+        final Map<Long, UUID> watermarks = new LinkedHashMap<>(watermarkRepository.findWatermarkCandidates(filter));
+        int updated = 0;
+        for (List<UUID> ids : Lists.partition(new ArrayList<>(watermarks.values()), MAX_IDS_PER_QUERY)) {
+            updated += watermarkRepository.markPending(ids);
+        }
 
-    private void validateWatermarkStatus(Long publicationId, Content content) {
-        final PublicationRepository publicationRepository = resolveRepository(content);
+        final Map<Long, UUID> created = watermarkRepository.createPendingWatermarks(filter);
+        watermarks.putAll(created);
 
-        final Publication publication = publicationRepository.findById(publicationId);
-        final Watermark watermark = publication.getWatermark();
-        log.debug("::validateWatermarkStatus {}", watermark);
-        if (nonNull(watermark) && PENDING.equals(watermark.getStatus())) {
-            throw new WatermarkException(String.format("Document with id=%s is already pending for watermark property",
-                    publication.getId()));
-        } else {
-            log.debug("valid {}", watermark);
-        }
+        watermarks.values().forEach(id -> eventPublisher.publishEvent(
+                new WatermarkStatusChangedEvent(id, new TicketDTO(id, PENDING, null))));
+        log.debug("{} watermarks are PENDING, {} created", updated, created.size());
+        return watermarks;
     }
 
     private PublicationRepository resolveRepository(Content content) {
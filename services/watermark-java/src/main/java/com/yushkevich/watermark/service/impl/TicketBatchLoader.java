@@ -0,0 +1,125 @@
+package com.yushkevich.watermark.service.impl;
+
+import com.yushkevich.watermark.dto.TicketDTO;
+import com.yushkevich.watermark.exception.NotFoundException;
+import com.yushkevich.watermark.repository.TicketJdbcRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+import rx.Observable;
+import rx.Subscriber;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Loads tickets by {@link TicketJdbcRepository} in batches: loads requested while previous batch is executed are queued
+ * and executed together as the next batch. At most one batch is executed at a time, so any number of concurrent loads
+ * occupies one thread of {@link DbExecutor} and one connection, batch size grows with load instead of number of threads.
+ * Counters are exposed as {@code ticket.loader.*} metrics.
+ */
+
+@Component
+@Slf4j
+public class TicketBatchLoader implements PublicMetrics {
+
+    static final int MAX_BATCH_SIZE = 500;
+
+    private final TicketJdbcRepository ticketJdbcRepository;
+    private final DbExecutor dbExecutor;
+
+    private final Queue<PendingLoad> pendingLoads = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean executing = new AtomicBoolean();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong tickets = new AtomicLong();
+
+    public TicketBatchLoader(TicketJdbcRepository ticketJdbcRepository, DbExecutor dbExecutor) {
+        this.ticketJdbcRepository = ticketJdbcRepository;
+        this.dbExecutor = dbExecutor;
+    }
+
+    /**
+     * @param ticketId Id of ticket/watermark
+     * @return Observable ticket, fails with {@link NotFoundException} if ticket doesn't exist
+     */
+    public Observable<TicketDTO> load(UUID ticketId) {
+        return Observable.create(subscriber -> {
+            pendingLoads.add(new PendingLoad(ticketId, subscriber));
+            executeNextBatch();
+        });
+    }
+
+    private void executeNextBatch() {
+        // loads queued after the check are picked up by executing batch once it is finished
+        if (pendingLoads.isEmpty() || !executing.compareAndSet(false, true)) {
+            return;
+        }
+
+        final Map<UUID, List<Subscriber<? super TicketDTO>>> batch = new HashMap<>();
+        PendingLoad pendingLoad;
+        while (batch.size() < MAX_BATCH_SIZE && (pendingLoad = pendingLoads.poll()) != null) {
+            batch.computeIfAbsent(pendingLoad.ticketId, id -> new ArrayList<>(1)).add(pendingLoad.subscriber);
+        }
+        batches.incrementAndGet();
+        tickets.addAndGet(batch.size());
+        log.debug("::executeNextBatch of {}", batch.size());
+
+        dbExecutor.execute(() -> ticketJdbcRepository.findTickets(batch.keySet()))
+                .subscribe(loadedTickets -> {
+                    try {
+                        batch.forEach((ticketId, subscribers) -> complete(subscribers, loadedTickets.get(ticketId)));
+                    } finally {
+                        finishBatch();
+                    }
+                }, ex -> {
+                    log.warn("Failure load batch of {} tickets", batch.size(), ex);
+                    try {
+                        batch.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.onError(ex)));
+                    } finally {
+                        finishBatch();
+                    }
+                });
+    }
+
+    private static void complete(List<Subscriber<? super TicketDTO>> subscribers, TicketDTO ticket) {
+        for (Subscriber<? super TicketDTO> subscriber : subscribers) {
+            if (isNull(ticket)) {
+                subscriber.onError(new NotFoundException());
+            } else {
+                subscriber.onNext(ticket);
+                subscriber.onCompleted();
+            }
+        }
+    }
+
+    private void finishBatch() {
+        executing.set(false);
+        executeNextBatch();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        return Arrays.asList(
+                new Metric<>("ticket.loader.batches", batches.get()),
+                new Metric<>("ticket.loader.tickets", tickets.get()));
+    }
+
+    @AllArgsConstructor
+    private static class PendingLoad {
+        private final UUID ticketId;
+        private final Subscriber<? super TicketDTO> subscriber;
+    }
+}
@@ -1,56 +1,79 @@
 package com.yushkevich.watermark.service.impl;
 
-import com.yushkevich.watermark.client.WatermarkClient;
-import com.yushkevich.watermark.client.WatermarkHystrixCommandProperties;
-import com.yushkevich.watermark.client.command.WatermarkCommand;
+import com.yushkevich.watermark.cache.CachedTicket;
+import com.yushkevich.watermark.cache.TicketCache;
 import com.yushkevich.watermark.domain.Content;
 import com.yushkevich.watermark.domain.Publication;
 import com.yushkevich.watermark.domain.Watermark;
+import com.yushkevich.watermark.dto.TicketDTO;
 import com.yushkevich.watermark.exception.NotFoundException;
-import com.yushkevich.watermark.exception.WatermarkException;
+import com.yushkevich.watermark.job.WatermarkJobDispatcher;
+import com.yushkevich.watermark.repository.PublicationFilter;
 import com.yushkevich.watermark.repository.WatermarkRepository;
 import com.yushkevich.watermark.service.PublicationService;
 import com.yushkevich.watermark.service.WatermarkService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 import rx.Observable;
 
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+import static com.yushkevich.watermark.utils.mapper.WatermarkMapper.buildTicketDTO;
+
+/**
+ * Observables of the service execute blocking JPA calls by {@link DbExecutor} on subscription (calls are transactional
+ * themselves), so subscribing thread is never blocked. Errors (e.g. {@link NotFoundException}) are emitted as
+ * {@code onError}, saturated DB pool as {@link java.util.concurrent.RejectedExecutionException}.
+ */
+
 @Component
 @AllArgsConstructor
-@Transactional
 @Slf4j
 public class WatermarkServiceImpl implements WatermarkService {
 
     private final WatermarkRepository watermarkRepository;
     private final PublicationService publicationService;
-    private final WatermarkClient watermarkClient;
-    private final WatermarkHystrixCommandProperties watermarkHystrixCommandProperties;
+    private final WatermarkJobDispatcher watermarkJobDispatcher;
+    private final TicketCache ticketCache;
+    private final DbExecutor dbExecutor;
+    private final TicketBatchLoader ticketBatchLoader;
 
     @Override
     public Observable<UUID> watermarkDocument(Long publicationId, Content content) {
-        return Observable.create(subscriber -> {
-                    subscriber.onNext(getWatermarkUuid(publicationId, content));
-                    subscriber.onCompleted();
-                    subscriber.onError(
-                            new WatermarkException(String.format("can't watermark document [%s/%s]", publicationId, content)));
-                }
-        );
+        return dbExecutor.execute(() -> getWatermarkUuid(publicationId, content));
+    }
+
+    @Override
+    public Observable<Map<Long, UUID>> watermarkDocuments(PublicationFilter filter) {
+        return dbExecutor.execute(() -> {
+            final Map<Long, UUID> watermarks = publicationService.setWatermarks(filter);
+            watermarkJobDispatcher.submitAll(watermarks, filter.getContent());
+            return watermarks;
+        });
+    }
+
+    @Override
+    public Observable<TicketDTO> pollWatermarkStatus(UUID ticketId) {
+        // cache hit is served on subscribing thread, only miss is offloaded to DB pool
+        return Observable.defer(() -> ticketCache.getIfPresent(ticketId)
+                .map(Observable::just)
+                .orElseGet(() -> dbExecutor.execute(() ->
+                        ticketCache.get(ticketId, () -> buildTicketDTO(find(ticketId))))));
+    }
+
+    @Override
+    public Observable<TicketDTO> pollWatermarkStatusInBatch(UUID ticketId) {
+        return Observable.defer(() -> ticketCache.getIfPresent(ticketId)
+                .map(Observable::just)
+                .orElseGet(() -> ticketBatchLoader.load(ticketId).doOnNext(ticketCache::putIfAbsent)));
     }
 
     @Override
-    public Observable<Watermark> pollWatermarkStatus(UUID ticketId) {
-        return Observable.create(subscriber -> {
-                    subscriber.onNext(find(ticketId));
-                    subscriber.onCompleted();
-                    subscriber.onError(
-                            new WatermarkException(String.format("can't retrieve watermark with id=%s", ticketId)));
-                }
-        );
+    public Optional<CachedTicket> findSerializedTicket(UUID ticketId) {
+        return ticketCache.getSerialized(ticketId);
     }
 
     private Watermark find(UUID ticketId) {
@@ -61,7 +84,7 @@ public class WatermarkServiceImpl implements WatermarkService {
     }
 
     /**
-     * Retrieves UUID of Watermark and executes watermark generation via hystrix command({@link WatermarkCommand}).
+     * Retrieves UUID of Watermark and submits persistent job for watermark generation({@link WatermarkJobDispatcher}).
      *
      * @param publicationId Publication id
      * @param content       Publication content
@@ -72,18 +95,10 @@ public class WatermarkServiceImpl implements WatermarkService {
     private UUID getWatermarkUuid(Long publicationId, Content content) {
         log.debug("::getWatermarkUuid [{}/{}]", publicationId, content);
 
-        final Watermark createdWatermark = publicationService.setWatermark(publicationId, content);
+        final UUID watermarkId = publicationService.setWatermark(publicationId, content);
 
-        WatermarkCommand.builder()
-                .groupKey(watermarkHystrixCommandProperties.getGroupKey())
-                .debugMessage("watermarkDocument")
-                .timeout(watermarkHystrixCommandProperties.getTimeoutInMilliseconds())
-                .watermarkProperties(createdWatermark.getPublication().getWatermarkProperties())
-                .watermarkClient(watermarkClient)
-                .build()
-                .observe()
-                .subscribe(o -> publicationService.updateWatermarkStatus(createdWatermark.getPublication(), o));
+        watermarkJobDispatcher.submit(watermarkId, publicationId, content);
 
-        return createdWatermark.getId();
+        return watermarkId;
     }
 }
@@ -0,0 +1,148 @@
+package com.yushkevich.watermark.state;
+
+import com.yushkevich.watermark.domain.Watermark;
+import com.yushkevich.watermark.domain.WatermarkState;
+import com.yushkevich.watermark.dto.PublicationDTO;
+import com.yushkevich.watermark.dto.TicketDTO;
+import com.yushkevich.watermark.event.WatermarkStatusChangedEvent;
+import com.yushkevich.watermark.exception.NotFoundException;
+import com.yushkevich.watermark.exception.WatermarkException;
+import com.yushkevich.watermark.repository.WatermarkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.yushkevich.watermark.domain.Watermark.Status.*;
+import static java.util.Objects.isNull;
+
+/**
+ * Status transitions of {@link Watermark} with compare-and-set semantics, so concurrent transitions never overwrite
+ * each other and no entity is loaded or saved for them:
+ * <ul>
+ * <li>{@link #moveTo(WatermarkState, Watermark.Status)} moves not PENDING watermark to NEW or PENDING, guarded by version.
+ * On conflict state is re-read and transition is retried up to {@code watermark.state.maxAttempts} times.</li>
+ * <li>{@link #finish(UUID, String, PublicationDTO)} moves PENDING watermark to SUCCESS or FAILED, guarded by status.</li>
+ * </ul>
+ * Every applied status change publishes {@link WatermarkStatusChangedEvent}. Counters are exposed as
+ * {@code watermark.transition.*} metrics.
+ */
+
+@Component
+@Transactional
+@Slf4j
+public class WatermarkStateMachine implements PublicMetrics {
+
+    private final WatermarkRepository watermarkRepository;
+    private final WatermarkStateProperties watermarkStateProperties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public WatermarkStateMachine(WatermarkRepository watermarkRepository,
+                                 WatermarkStateProperties watermarkStateProperties,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.watermarkRepository = watermarkRepository;
+        this.watermarkStateProperties = watermarkStateProperties;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Moves watermark to given status and resets its property unless watermark is PENDING. State known by caller is
+     * used for the first attempt, so transition without conflict is one UPDATE.
+     *
+     * @param state  Known state of watermark
+     * @param status Target status
+     * @return Status of watermark before transition
+     * @throws WatermarkException if watermark is PENDING or it was changed concurrently on every attempt
+     * @throws NotFoundException  if watermark was removed
+     */
+    public Watermark.Status moveTo(WatermarkState state, Watermark.Status status) {
+        WatermarkState currentState = state;
+        for (int attempt = 1; ; attempt++) {
+            if (isNull(currentState)) {
+                throw new NotFoundException();
+            }
+
+            final Watermark.Status currentStatus = currentState.getStatus();
+            if (PENDING == currentStatus) {
+                rejected.incrementAndGet();
+                throw pendingWatermarkException(currentState.getPublicationId());
+            }
+
+            final UUID watermarkId = currentState.getWatermarkId();
+            if (watermarkRepository.compareAndSet(watermarkId, currentState.getVersion(), status.getName(), null) == 1) {
+                applied.incrementAndGet();
+                log.debug("::moveTo {} -> {} (attempt {})", currentState, status, attempt);
+                if (currentStatus != status) {
+                    publishStatusChanged(new TicketDTO(watermarkId, status, null));
+                }
+                return currentStatus;
+            }
+
+            conflicts.incrementAndGet();
+            if (attempt >= watermarkStateProperties.getMaxAttempts()) {
+                throw new WatermarkException(String.format("Watermark with id=%s was changed concurrently %s times",
+                        watermarkId, attempt));
+            }
+            retries.incrementAndGet();
+            currentState = watermarkRepository.findState(watermarkId);
+        }
+    }
+
+    /**
+     * Finishes PENDING watermark with one UPDATE: SUCCESS with given property or FAILED for empty property.
+     * Publication is not loaded, document of SUCCESS ticket is provided by caller.
+     *
+     * @param watermarkId       Id of watermark
+     * @param watermarkProperty Generated watermark property (empty if generation failed)
+     * @param document          Watermarked publication
+     * @return true if watermark was finished, false if it is not PENDING anymore (e.g. it was removed)
+     */
+    public boolean finish(UUID watermarkId, String watermarkProperty, PublicationDTO document) {
+        final Watermark.Status status = watermarkProperty.isEmpty() ? FAILED : SUCCESS;
+        final String property = watermarkProperty.isEmpty() ? null : watermarkProperty;
+
+        if (watermarkRepository.transition(watermarkId, PENDING.getName(), status.getName(), property) == 0) {
+            conflicts.incrementAndGet();
+            log.warn("Watermark with id={} is not PENDING anymore, {} is discarded", watermarkId, status);
+            return false;
+        }
+
+        applied.incrementAndGet();
+        log.debug("::finish [{}/{}/{}]", watermarkId, status, property);
+        publishStatusChanged(new TicketDTO(watermarkId, status, SUCCESS == status ? document : null));
+        return true;
+    }
+
+    public static WatermarkException pendingWatermarkException(Long publicationId) {
+        return new WatermarkException(String.format("Document with id=%s is already pending for watermark property",
+                publicationId));
+    }
+
+    /**
+     * Listeners are notified after commit, so they never observe status which was rolled back.
+     */
+    private void publishStatusChanged(TicketDTO ticket) {
+        eventPublisher.publishEvent(new WatermarkStatusChangedEvent(ticket.getId(), ticket));
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        return Arrays.asList(
+                new Metric<>("watermark.transition.applied", applied.get()),
+                new Metric<>("watermark.transition.conflict", conflicts.get()),
+                new Metric<>("watermark.transition.retry", retries.get()),
+                new Metric<>("watermark.transition.rejected", rejected.get()));
+    }
+}
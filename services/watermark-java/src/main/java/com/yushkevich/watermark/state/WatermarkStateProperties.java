@@ -0,0 +1,14 @@
+package com.yushkevich.watermark.state;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "watermark.state")
+@Getter
+@Setter
+public class WatermarkStateProperties {
+    private int maxAttempts;
+}
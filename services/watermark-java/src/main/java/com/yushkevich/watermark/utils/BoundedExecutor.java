@@ -0,0 +1,111 @@
+package com.yushkevich.watermark.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import rx.Observable;
+import rx.subscriptions.Subscriptions;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.yushkevich.watermark.utils.VirtualThreads.newBoundedThreadPerTaskExecutor;
+import static com.yushkevich.watermark.utils.VirtualThreads.threadFactory;
+
+/**
+ * Base class for dedicated bounded pools of blocking calls, so blocking work doesn't occupy request threads or shared
+ * rx schedulers. Call submitted to saturated pool (all threads are busy and queue is full) is rejected immediately.
+ * Pool state is exposed as {@code <name>.*} metrics.
+ * <p>
+ * Virtual threads are not pooled: every call starts its own virtual thread, pool size and queue capacity bound number
+ * of running and waiting calls by semaphores ({@link BoundedThreadPerTaskExecutor}).
+ */
+
+@Slf4j
+public abstract class BoundedExecutor implements PublicMetrics, DisposableBean {
+
+    private final String name;
+    private final ExecutorService executor;
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param name          Name of pool, used as metrics prefix and (with dots replaced) as prefix of thread names
+     * @param poolSize      Number of threads (of concurrently running virtual threads)
+     * @param queueCapacity Number of calls waiting for thread (for running permit)
+     * @param virtual       {@code true} if calls run on virtual thread per call
+     */
+    protected BoundedExecutor(String name, int poolSize, int queueCapacity, boolean virtual) {
+        this.name = name;
+        final String threadNamePrefix = name.replace('.', '-') + "-";
+        this.executor = virtual
+                ? newBoundedThreadPerTaskExecutor(threadNamePrefix, poolSize, queueCapacity)
+                : new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory(threadNamePrefix, false),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Executes blocking call in the pool on subscription. Unsubscription (e.g. timeout) cancels the call,
+     * so pool thread is released.
+     *
+     * @param call Blocking call
+     * @return Observable of call result, fails with {@link RejectedExecutionException} if pool is saturated
+     */
+    public <T> Observable<T> execute(Callable<T> call) {
+        return Observable.create(subscriber -> {
+            try {
+                final Future<?> future = executor.submit(() -> {
+                    try {
+                        final T result = call.call();
+                        subscriber.onNext(result);
+                        subscriber.onCompleted();
+                    } catch (Throwable ex) {
+                        subscriber.onError(ex);
+                    }
+                });
+                subscriber.add(Subscriptions.from(future));
+            } catch (RejectedExecutionException ex) {
+                rejected.incrementAndGet();
+                log.warn("Pool {} is saturated: {}", name, ex.getMessage());
+                subscriber.onError(ex);
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        if (executor instanceof BoundedThreadPerTaskExecutor) {
+            final BoundedThreadPerTaskExecutor virtualExecutor = (BoundedThreadPerTaskExecutor) executor;
+            return Arrays.asList(
+                    new Metric<>(name + ".poolSize", virtualExecutor.getActiveCount()),
+                    new Metric<>(name + ".active", virtualExecutor.getActiveCount()),
+                    new Metric<>(name + ".queueSize", virtualExecutor.getWaitingCount()),
+                    new Metric<>(name + ".queueRemainingCapacity", virtualExecutor.getRemainingWaitingCapacity()),
+                    new Metric<>(name + ".completed", virtualExecutor.getCompletedTaskCount()),
+                    new Metric<>(name + ".rejected", rejected.get()));
+        }
+        final ThreadPoolExecutor executor = (ThreadPoolExecutor) this.executor;
+        return Arrays.asList(
+                new Metric<>(name + ".poolSize", executor.getPoolSize()),
+                new Metric<>(name + ".active", executor.getActiveCount()),
+                new Metric<>(name + ".queueSize", executor.getQueue().size()),
+                new Metric<>(name + ".queueRemainingCapacity", executor.getQueue().remainingCapacity()),
+                new Metric<>(name + ".completed", executor.getCompletedTaskCount()),
+                new Metric<>(name + ".rejected", rejected.get()));
+    }
+}
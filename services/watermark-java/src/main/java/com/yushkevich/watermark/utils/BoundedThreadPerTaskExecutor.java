@@ -0,0 +1,109 @@
+package com.yushkevich.watermark.utils;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor starting new (virtual) thread for every task, bounded by semaphores instead of pool size: at most
+ * {@code maxRunning} tasks run concurrently, up to {@code maxWaiting} tasks wait for permit on their own thread (instead
+ * of queue), task above these limits is rejected immediately with {@link RejectedExecutionException}.
+ * Threads are not pooled, so blocked task costs only its thread and limits protect downstream resources (e.g. DB
+ * connections) and not threads.
+ */
+
+public class BoundedThreadPerTaskExecutor extends AbstractExecutorService {
+
+    private final ExecutorService threadPerTaskExecutor;
+    private final int maxRunning;
+    private final int maxWaiting;
+    private final Semaphore admitted;
+    private final Semaphore running;
+    private final AtomicLong completed = new AtomicLong();
+
+    /**
+     * @param threadPerTaskExecutor Unbounded executor starting thread per task
+     * @param maxRunning            Number of concurrently running tasks
+     * @param maxWaiting            Number of tasks waiting for running permit
+     */
+    public BoundedThreadPerTaskExecutor(ExecutorService threadPerTaskExecutor, int maxRunning, int maxWaiting) {
+        this.threadPerTaskExecutor = threadPerTaskExecutor;
+        this.maxRunning = maxRunning;
+        this.maxWaiting = maxWaiting;
+        this.admitted = new Semaphore(maxRunning + maxWaiting);
+        this.running = new Semaphore(maxRunning);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!admitted.tryAcquire()) {
+            throw new RejectedExecutionException(String.format("%d tasks are running and %d are waiting",
+                    getActiveCount(), getWaitingCount()));
+        }
+        try {
+            threadPerTaskExecutor.execute(() -> {
+                try {
+                    running.acquire();
+                    try {
+                        task.run();
+                    } finally {
+                        running.release();
+                        completed.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    admitted.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            admitted.release();
+            throw e;
+        }
+    }
+
+    public int getActiveCount() {
+        return maxRunning - running.availablePermits();
+    }
+
+    public int getWaitingCount() {
+        return Math.max(0, maxRunning + maxWaiting - admitted.availablePermits() - getActiveCount());
+    }
+
+    public int getRemainingWaitingCapacity() {
+        return maxWaiting - getWaitingCount();
+    }
+
+    public long getCompletedTaskCount() {
+        return completed.get();
+    }
+
+    @Override
+    public void shutdown() {
+        threadPerTaskExecutor.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return threadPerTaskExecutor.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return threadPerTaskExecutor.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return threadPerTaskExecutor.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return threadPerTaskExecutor.awaitTermination(timeout, unit);
+    }
+}
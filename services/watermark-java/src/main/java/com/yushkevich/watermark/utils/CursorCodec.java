@@ -0,0 +1,42 @@
+package com.yushkevich.watermark.utils;
+
+import com.google.common.primitives.Longs;
+import com.yushkevich.watermark.exception.BadRequestException;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.Base64;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+
+/**
+ * Utility class to encode/decode opaque continuation token of keyset pagination. Token wraps id of last returned entry.
+ */
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CursorCodec {
+
+    public static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Longs.toByteArray(id));
+    }
+
+    /**
+     * @param cursor Continuation token
+     * @return Id of last returned entry or {@code null} for empty token(beginning of the list)
+     */
+    public static Long decode(String cursor) {
+        if (isNullOrEmpty(cursor)) {
+            return null;
+        }
+
+        try {
+            final byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+            if (bytes.length != Longs.BYTES) {
+                throw new IllegalArgumentException();
+            }
+            return Longs.fromByteArray(bytes);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(String.format("Invalid cursor '%s'", cursor));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.yushkevich.watermark.utils;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Utility class to create threads for blocking work either as platform or as virtual threads.
+ * Service is compiled for Java 8, so virtual threads (Java 21+) are accessed reflectively and used only if requested
+ * ({@code watermark.threads.virtual}).
+ */
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+
+    public static boolean isSupported() {
+        return nonNull(OF_VIRTUAL);
+    }
+
+    /**
+     * @param namePrefix Prefix of thread names, followed by thread number
+     * @param virtual    {@code true} for virtual threads, otherwise daemon platform threads
+     * @return Factory of named threads
+     * @throws IllegalStateException if virtual threads are requested, but not supported by JVM
+     */
+    public static ThreadFactory threadFactory(String namePrefix, boolean virtual) {
+        if (!virtual) {
+            return new ThreadFactoryBuilder().setNameFormat(namePrefix + "%d").setDaemon(true).build();
+        }
+        if (!isSupported()) {
+            throw new IllegalStateException(String.format("Virtual threads require Java 21+, running on %s",
+                    System.getProperty("java.version")));
+        }
+
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            final Object builder = builderClass.getMethod("name", String.class, long.class)
+                    .invoke(OF_VIRTUAL.invoke(null), namePrefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failure create virtual thread factory", e);
+        }
+    }
+
+    /**
+     * Executor starting new virtual thread for every task (virtual threads are not pooled).
+     *
+     * @param namePrefix Prefix of thread names, followed by thread number
+     * @return Executor
+     * @throws IllegalStateException if virtual threads are not supported by JVM
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        final ThreadFactory threadFactory = threadFactory(namePrefix, true);
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failure create virtual thread executor", e);
+        }
+    }
+
+    /**
+     * Executor starting new virtual thread for every task, number of running and waiting tasks is bounded by semaphores.
+     *
+     * @param namePrefix Prefix of thread names, followed by thread number
+     * @param maxRunning Number of concurrently running tasks
+     * @param maxWaiting Number of tasks waiting for running permit, task above it is rejected
+     * @return Executor
+     * @throws IllegalStateException if virtual threads are not supported by JVM
+     */
+    public static BoundedThreadPerTaskExecutor newBoundedThreadPerTaskExecutor(String namePrefix, int maxRunning,
+                                                                               int maxWaiting) {
+        return new BoundedThreadPerTaskExecutor(newThreadPerTaskExecutor(namePrefix), maxRunning, maxWaiting);
+    }
+
+    private static Method findMethod(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
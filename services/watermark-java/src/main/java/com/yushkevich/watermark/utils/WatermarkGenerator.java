@@ -1,27 +1,109 @@
 package com.yushkevich.watermark.utils;
 
+import com.yushkevich.watermark.domain.Publication;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 
+import static java.util.Objects.isNull;
+
 /**
- * Utility class to create watermark property (String).
+ * Utility class to create watermark property (String). Besides String, watermark can be appended to caller-supplied
+ * {@link StringBuilder} and encoded as UTF-8 into caller-supplied {@link ByteBuffer}, so generation with reused buffers
+ * does not allocate (see {@code WatermarkGeneratorBenchmark}).
  */
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 @Slf4j
 public final class WatermarkGenerator {
 
+    private static final String PREFIX = "---*";
+    private static final char SEPARATOR = '*';
+    private static final String SUFFIX = "---";
+
     public static String generateWatermark(List<String> watermarkProperties) {
+        return appendWatermark(new StringBuilder(watermarkLength(watermarkProperties)), watermarkProperties).toString();
+    }
 
-        StringBuilder watermark = new StringBuilder();
-        watermark.append("---*");
-        watermarkProperties.forEach(wp -> watermark.append(wp).append("*"));
-        watermark.append("---");
+    public static String generateWatermark(Publication publication) {
+        return generateWatermark(publication.getWatermarkProperties());
+    }
 
-        return watermark.toString();
+    /**
+     * @param target              Builder watermark is appended to
+     * @param watermarkProperties Watermark properties of document
+     * @return target
+     */
+    public static StringBuilder appendWatermark(StringBuilder target, List<String> watermarkProperties) {
+        target.append(PREFIX);
+        for (int i = 0; i < watermarkProperties.size(); i++) { // indexed, properties are random access lists
+            target.append(watermarkProperties.get(i)).append(SEPARATOR);
+        }
+        return target.append(SUFFIX);
     }
 
+    /**
+     * @param watermarkProperties Watermark properties of document
+     * @return Number of chars of watermark
+     */
+    public static int watermarkLength(List<String> watermarkProperties) {
+        int length = PREFIX.length() + SUFFIX.length();
+        for (int i = 0; i < watermarkProperties.size(); i++) {
+            final String property = watermarkProperties.get(i);
+            length += (isNull(property) ? 4 : property.length()) + 1;
+        }
+        return length;
+    }
+
+    /**
+     * Encodes watermark as UTF-8 without intermediate String/byte[], malformed surrogates are replaced by '?' like
+     * {@link String#getBytes(java.nio.charset.Charset)} does.
+     *
+     * @param watermark Watermark (or any chars)
+     * @param target    Buffer bytes are written to from its position
+     * @return Number of written bytes
+     * @throws java.nio.BufferOverflowException if remaining bytes of target are not enough
+     */
+    public static int encodeWatermark(CharSequence watermark, ByteBuffer target) {
+        final int start = target.position();
+        final int length = watermark.length();
+        for (int i = 0; i < length; i++) {
+            final char c = watermark.charAt(i);
+            if (c < 0x80) {
+                target.put((byte) c);
+            } else if (c < 0x800) {
+                target.put((byte) (0xC0 | c >> 6))
+                        .put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(watermark.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, watermark.charAt(++i));
+                target.put((byte) (0xF0 | codePoint >> 18))
+                        .put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                        .put((byte) (0x80 | codePoint >> 6 & 0x3F))
+                        .put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                target.put((byte) '?');
+            } else {
+                target.put((byte) (0xE0 | c >> 12))
+                        .put((byte) (0x80 | c >> 6 & 0x3F))
+                        .put((byte) (0x80 | c & 0x3F));
+            }
+        }
+        return target.position() - start;
+    }
+
+    /**
+     * @param watermark Watermark (or any chars)
+     * @return Watermark encoded as UTF-8
+     */
+    public static byte[] encodeWatermark(CharSequence watermark) {
+        final ByteBuffer buffer = ByteBuffer.allocate(watermark.length() * 3);
+        encodeWatermark(watermark, buffer);
+        final byte[] bytes = new byte[buffer.position()];
+        buffer.flip();
+        buffer.get(bytes);
+        return bytes;
+    }
 }
@@ -4,70 +4,72 @@ import com.yushkevich.watermark.domain.Book;
 import com.yushkevich.watermark.domain.Content;
 import com.yushkevich.watermark.domain.Journal;
 import com.yushkevich.watermark.domain.Publication;
+import com.yushkevich.watermark.domain.PublicationSummary;
+import com.yushkevich.watermark.dto.CursorPageDTO;
 import com.yushkevich.watermark.dto.PageDTO;
 import com.yushkevich.watermark.dto.PublicationDTO;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
-import org.springframework.beans.BeanWrapper;
-import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 import static com.yushkevich.watermark.domain.Content.BOOK;
+import static com.yushkevich.watermark.utils.CursorCodec.encode;
 import static java.util.Objects.nonNull;
-import static java.util.stream.Collectors.toList;
-import static org.springframework.beans.BeanUtils.copyProperties;
 
 /**
  * Utility class for mapping publication to related DTOs and vice versa.
+ * Properties are copied explicitly(without reflection), mappers allocate nothing except of target object.
  */
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class PublicationMapper {
 
     public static Publication buildPublication(PublicationDTO dto) {
-        Publication publication = null;
+        final Publication publication;
 
         final Content content = dto.getContent();
         switch (content) {
             case BOOK:
-                publication = new Book();
+                final Book book = new Book();
                 final Book.Topic topic = dto.getTopic();
-                copyProperties(dto, publication);
                 if (nonNull(topic)) {
-                    ((Book) publication).setTopic(topic.getName());
+                    book.setTopic(topic.getName());
                 }
+                publication = book;
                 break;
             case JOURNAL:
                 publication = new Journal();
-                copyProperties(dto, publication);
                 break;
+            default:
+                throw new IllegalArgumentException(String.format("Unknown content %s", content));
         }
 
+        publication.setId(dto.getId());
+        publication.setTitle(dto.getTitle());
+        publication.setAuthor(dto.getAuthor());
         publication.setContent(content);
 
         return publication;
     }
 
     public static PublicationDTO buildPublicationDTO(Publication publication) {
-        final PublicationDTO dto = new PublicationDTO();
+        final Content content = publication.getContent();
 
-        copyProperties(publication, dto);
-        dto.setContent(publication.getContent());
-        if (BOOK.equals(publication.getContent())) {
-            dto.setTopic(((Book) publication).getTopic());
-        }
+        return new PublicationDTO(publication.getId(), content, publication.getTitle(), publication.getAuthor(),
+                BOOK == content ? ((Book) publication).getTopic() : null);
+    }
 
-        return dto;
+    public static PublicationDTO buildPublicationDTO(PublicationSummary summary) {
+        return new PublicationDTO(summary.getId(), summary.getContent(), summary.getTitle(), summary.getAuthor(),
+                summary.getTopic());
     }
 
-    public static PageDTO<PublicationDTO> buildPagePublicationDTO(Page<Publication> publicationPage) {
-        final List<PublicationDTO> entries = publicationPage.getContent().parallelStream()
-                .map(PublicationMapper::buildPublicationDTO)
-                .collect(toList());
+    public static PageDTO<PublicationDTO> buildPagePublicationDTO(Page<PublicationSummary> publicationPage) {
+        final List<PublicationDTO> entries = buildPublicationDTOs(publicationPage.getContent());
 
         return PageDTO.<PublicationDTO>builder()
                 .totalPages(publicationPage.getTotalPages())
@@ -76,16 +78,43 @@ public final class PublicationMapper {
                 .build();
     }
 
-    public static String[] getNullPropertyNames (Object source) {
-        final BeanWrapper src = new BeanWrapperImpl(source);
-        java.beans.PropertyDescriptor[] pds = src.getPropertyDescriptors();
+    public static CursorPageDTO<PublicationDTO> buildCursorPagePublicationDTO(
+            Slice<PublicationSummary> publicationSlice, Long totalEntries) {
+        final List<PublicationDTO> entries = buildPublicationDTOs(publicationSlice.getContent());
+
+        return CursorPageDTO.<PublicationDTO>builder()
+                .entries(entries)
+                .nextCursor(publicationSlice.hasNext() ? encode(entries.get(entries.size() - 1).getId()) : null)
+                .totalEntries(totalEntries)
+                .build();
+    }
 
-        Set<String> emptyNames = new HashSet<>();
-        for(java.beans.PropertyDescriptor pd : pds) {
-            Object srcValue = src.getPropertyValue(pd.getName());
-            if (srcValue == null) emptyNames.add(pd.getName());
+    private static List<PublicationDTO> buildPublicationDTOs(List<PublicationSummary> summaries) {
+        final List<PublicationDTO> dtos = new ArrayList<>(summaries.size());
+        for (PublicationSummary summary : summaries) {
+            dtos.add(buildPublicationDTO(summary));
+        }
+        return dtos;
+    }
+
+    /**
+     * Null-aware patch: copies only non null updatable properties(title, author and topic of book) of source.
+     *
+     * @param source Publication with new values
+     * @param target Publication to be updated
+     */
+    public static void patchPublication(Publication source, Publication target) {
+        if (nonNull(source.getTitle())) {
+            target.setTitle(source.getTitle());
+        }
+        if (nonNull(source.getAuthor())) {
+            target.setAuthor(source.getAuthor());
+        }
+        if (source instanceof Book && target instanceof Book) {
+            final Book.Topic topic = ((Book) source).getTopic();
+            if (nonNull(topic)) {
+                ((Book) target).setTopic(topic.getName());
+            }
         }
-        String[] result = new String[emptyNames.size()];
-        return emptyNames.toArray(result);
     }
 }
@@ -7,7 +7,6 @@ import lombok.NoArgsConstructor;
 
 import static com.yushkevich.watermark.domain.Watermark.Status.SUCCESS;
 import static com.yushkevich.watermark.utils.mapper.PublicationMapper.buildPublicationDTO;
-import static org.springframework.beans.BeanUtils.copyProperties;
 
 /**
  * Utility class for mapping watermark to related DTOs and vice versa.
@@ -17,13 +16,9 @@ import static org.springframework.beans.BeanUtils.copyProperties;
 public final class WatermarkMapper {
 
     public static TicketDTO buildTicketDTO(Watermark watermark) {
-        final TicketDTO dto = new TicketDTO();
+        final Watermark.Status status = watermark.getStatus();
 
-        copyProperties(watermark, dto);
-        if (SUCCESS.equals(watermark.getStatus())) {
-            dto.setDocument(buildPublicationDTO(watermark.getPublication()));
-        }
-
-        return dto;
+        return new TicketDTO(watermark.getId(), status,
+                SUCCESS == status ? buildPublicationDTO(watermark.getPublication()) : null);
     }
 }
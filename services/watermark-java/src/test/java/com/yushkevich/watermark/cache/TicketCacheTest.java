@@ -0,0 +1,111 @@
+package com.yushkevich.watermark.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yushkevich.watermark.dto.TicketDTO;
+import com.yushkevich.watermark.event.WatermarkStatusChangedEvent;
+import com.yushkevich.watermark.exception.NotFoundException;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.yushkevich.watermark.domain.Watermark.Status.PENDING;
+import static com.yushkevich.watermark.domain.Watermark.Status.SUCCESS;
+import static java.util.stream.Collectors.toMap;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+
+public class TicketCacheTest {
+
+    private static final UUID TICKET_ID = UUID.randomUUID();
+
+    private TicketCache ticketCache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        final TicketCacheProperties ticketCacheProperties = new TicketCacheProperties();
+        ticketCacheProperties.setMaximumSize(1);
+        ticketCacheProperties.setExpireAfterWriteInSeconds(60);
+        ticketCache = new TicketCache(ticketCacheProperties, new ObjectMapper());
+    }
+
+    @Test
+    public void testGet_loadsOnMissAndServesFromCache() {
+        assertThat(ticketCache.get(TICKET_ID, this::loadPendingTicket).getStatus(), is(PENDING));
+        assertThat(ticketCache.get(TICKET_ID, this::loadPendingTicket).getStatus(), is(PENDING));
+
+        assertThat(loads.get(), is(1));
+        assertThat(metrics().get("ticket.cache.hit"), is(1L));
+        assertThat(metrics().get("ticket.cache.miss"), is(1L));
+    }
+
+    @Test
+    public void testOnStatusChanged_writeThroughAndEviction() {
+        ticketCache.get(TICKET_ID, this::loadPendingTicket);
+
+        ticketCache.onStatusChanged(new WatermarkStatusChangedEvent(TICKET_ID,
+                TicketDTO.builder().id(TICKET_ID).status(SUCCESS).build()));
+        assertThat(ticketCache.get(TICKET_ID, this::loadPendingTicket).getStatus(), is(SUCCESS));
+        assertThat(loads.get(), is(1));
+
+        final UUID otherTicketId = UUID.randomUUID();
+        ticketCache.onStatusChanged(new WatermarkStatusChangedEvent(otherTicketId,
+                TicketDTO.builder().id(otherTicketId).status(PENDING).build()));
+        assertThat(metrics().get("ticket.cache.eviction"), is(1L));
+
+        ticketCache.onStatusChanged(new WatermarkStatusChangedEvent(otherTicketId, null));
+        assertThat(metrics().get("ticket.cache.size"), is(0L));
+    }
+
+    @Test
+    public void testGetSerialized_onlyFinishedTickets() throws Exception {
+        ticketCache.get(TICKET_ID, this::pendingTicket);
+        assertFalse(ticketCache.getSerialized(TICKET_ID).isPresent());
+
+        final TicketDTO finishedTicket = TicketDTO.builder().id(TICKET_ID).status(SUCCESS).build();
+        ticketCache.onStatusChanged(new WatermarkStatusChangedEvent(TICKET_ID, finishedTicket));
+        final CachedTicket cachedTicket = ticketCache.getSerialized(TICKET_ID).orElseThrow(AssertionError::new);
+
+        assertThat(new ObjectMapper().readValue(cachedTicket.getJson(), TicketDTO.class), is(finishedTicket));
+        assertThat(cachedTicket.getETag(), startsWith("\"0"));
+        assertThat(metrics().get("ticket.cache.serializedHit"), is(1L));
+    }
+
+    @Test
+    public void testGetIfPresent_countedAsHitWithoutLoading() {
+        assertFalse(ticketCache.getIfPresent(TICKET_ID).isPresent());
+        ticketCache.get(TICKET_ID, this::loadPendingTicket);
+
+        assertThat(ticketCache.getIfPresent(TICKET_ID).map(TicketDTO::getStatus).orElse(null), is(PENDING));
+        assertThat(loads.get(), is(1));
+        assertThat(metrics().get("ticket.cache.hit"), is(1L));
+        assertThat(metrics().get("ticket.cache.miss"), is(1L));
+        assertThat(metrics().get("ticket.cache.hitRatio"), is(0.5));
+    }
+
+    @Test(expected = NotFoundException.class)
+    public void testGet_loaderExceptionIsPropagated() {
+        ticketCache.get(TICKET_ID, () -> {
+            throw new NotFoundException();
+        });
+    }
+
+    private TicketDTO loadPendingTicket() {
+        loads.incrementAndGet();
+        return pendingTicket();
+    }
+
+    private TicketDTO pendingTicket() {
+        return TicketDTO.builder().id(TICKET_ID).status(PENDING).build();
+    }
+
+    private Map<String, Number> metrics() {
+        return ticketCache.metrics().stream().collect(toMap(Metric::getName, Metric::getValue));
+    }
+}
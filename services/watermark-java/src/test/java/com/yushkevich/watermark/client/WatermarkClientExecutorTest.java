@@ -0,0 +1,95 @@
+package com.yushkevich.watermark.client;
+
+import com.yushkevich.watermark.ThreadsProperties;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.Metric;
+import rx.Observable;
+import rx.observers.TestSubscriber;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class WatermarkClientExecutorTest {
+
+    private final WatermarkClientExecutor watermarkClientExecutor = buildWatermarkClientExecutor(1, 1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Test
+    public void testCallIsExecutedInDedicatedPool() throws Exception {
+        final String threadName = watermarkClientExecutor.execute(() -> Thread.currentThread().getName())
+                .toBlocking().single();
+
+        assertTrue(threadName.startsWith("watermark-client-"));
+    }
+
+    @Test
+    public void testCallIsRejectedIfPoolIsSaturated() throws Exception {
+        //given
+        final CountDownLatch started = new CountDownLatch(1);
+        watermarkClientExecutor.execute(() -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        }).subscribe();
+        started.await(5, TimeUnit.SECONDS);
+        // queued
+        watermarkClientExecutor.execute(() -> release.await(5, TimeUnit.SECONDS)).subscribe();
+        final TestSubscriber<Boolean> subscriber = new TestSubscriber<>();
+        //when
+        watermarkClientExecutor.execute(() -> release.await(5, TimeUnit.SECONDS)).subscribe(subscriber);
+        //then
+        subscriber.assertError(RejectedExecutionException.class);
+        assertThat(metric("watermark.client.executor.rejected"), is(1L));
+        assertThat(metric("watermark.client.executor.active"), is(1L));
+        assertThat(metric("watermark.client.executor.queueSize"), is(1L));
+    }
+
+    @Test
+    public void testCallIsCancelledOnUnsubscribe() throws Exception {
+        //given
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final Observable<Boolean> call = watermarkClientExecutor.execute(() -> {
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+        });
+        //when
+        call.timeout(100, TimeUnit.MILLISECONDS).subscribe(new TestSubscriber<>());
+        //then
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        release.countDown();
+        watermarkClientExecutor.destroy();
+    }
+
+    public static WatermarkClientExecutor buildWatermarkClientExecutor() {
+        return buildWatermarkClientExecutor(2, 10);
+    }
+
+    private static WatermarkClientExecutor buildWatermarkClientExecutor(int poolSize, int queueCapacity) {
+        final WatermarkHystrixCommandProperties properties = new WatermarkHystrixCommandProperties();
+        properties.setExecutorPoolSize(poolSize);
+        properties.setExecutorQueueCapacity(queueCapacity);
+        return new WatermarkClientExecutor(properties, new ThreadsProperties());
+    }
+
+    private long metric(String name) {
+        return watermarkClientExecutor.metrics().stream()
+                .filter(metric -> metric.getName().equals(name))
+                .map(Metric::getValue)
+                .findFirst()
+                .orElseThrow(IllegalArgumentException::new)
+                .longValue();
+    }
+}
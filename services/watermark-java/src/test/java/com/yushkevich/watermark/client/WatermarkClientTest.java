@@ -1,11 +1,18 @@
 package com.yushkevich.watermark.client;
 
+import com.google.common.collect.ImmutableMap;
+import com.yushkevich.watermark.client.engine.WatermarkRequest;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
 
+import static com.yushkevich.watermark.domain.Content.BOOK;
+import static com.yushkevich.watermark.domain.Content.JOURNAL;
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.number.OrderingComparison.*;
 import static org.junit.Assert.assertThat;
 
@@ -24,10 +31,28 @@ public class WatermarkClientTest {
     public void testCreateWatermark() {
         final long start = System.currentTimeMillis();
 
-        watermarkClient.createWatermark(Arrays.asList("book", "authorBook", "titleBook", "Science"));
+        watermarkClient.createWatermark(
+                new WatermarkRequest(1L, BOOK, Arrays.asList("book", "authorBook", "titleBook", "Science")));
         final int creationTime = (int) (System.currentTimeMillis() - start);
 
         assertThat(creationTime, greaterThanOrEqualTo(WATERMARK_TIMEOUT));
         assertThat(creationTime, lessThan(WATERMARK_TIMEOUT + 200));
     }
+
+    @Test
+    public void testCreateWatermarks() {
+        final UUID bookId = UUID.randomUUID();
+        final UUID journalId = UUID.randomUUID();
+        final long start = System.currentTimeMillis();
+
+        final Map<UUID, String> watermarks = watermarkClient.createWatermarks(ImmutableMap.of(
+                bookId, new WatermarkRequest(1L, BOOK, Arrays.asList("book", "authorBook", "titleBook", "Science")),
+                journalId, new WatermarkRequest(2L, JOURNAL, Arrays.asList("journal", "authorJournal", "titleJournal"))));
+        final int creationTime = (int) (System.currentTimeMillis() - start);
+
+        assertThat(creationTime, greaterThanOrEqualTo(WATERMARK_TIMEOUT));
+        assertThat(creationTime, lessThan(WATERMARK_TIMEOUT + 200));
+        assertThat(watermarks.get(bookId), is("---*book*authorBook*titleBook*Science*---"));
+        assertThat(watermarks.get(journalId), is("---*journal*authorJournal*titleJournal*---"));
+    }
 }
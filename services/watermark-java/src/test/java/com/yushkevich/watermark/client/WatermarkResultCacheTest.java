@@ -0,0 +1,111 @@
+package com.yushkevich.watermark.client;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.stream.Collectors.toMap;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+
+public class WatermarkResultCacheTest {
+
+    private static final String ENGINE = "simulated";
+    private static final List<String> PROPERTIES = Arrays.asList("book", "author", "title", "Science");
+    private static final List<String> OTHER_PROPERTIES = Arrays.asList("journal", "author", "title");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testGet_hitOnlyForEqualEngineAndProperties() {
+        final WatermarkResultCache cache = buildWatermarkResultCache(10, null);
+        cache.put(ENGINE, PROPERTIES, "watermark");
+        cache.put(ENGINE, OTHER_PROPERTIES, "");
+
+        assertThat(cache.get(ENGINE, Arrays.asList("book", "author", "title", "Science")),
+                is(Optional.of("watermark")));
+        assertFalse(cache.get(ENGINE, OTHER_PROPERTIES).isPresent());
+        assertFalse(cache.get("stamping", PROPERTIES).isPresent());
+        assertThat(metrics(cache).get("watermark.client.cache.hit"), is(1L));
+        assertThat(metrics(cache).get("watermark.client.cache.miss"), is(2L));
+    }
+
+    @Test
+    public void testGet_leastRecentlyUsedIsEvicted() {
+        final WatermarkResultCache cache = buildWatermarkResultCache(1, null);
+        cache.put(ENGINE, PROPERTIES, "watermark");
+        cache.put(ENGINE, OTHER_PROPERTIES, "otherWatermark");
+
+        assertFalse(cache.get(ENGINE, PROPERTIES).isPresent());
+        assertThat(cache.get(ENGINE, OTHER_PROPERTIES), is(Optional.of("otherWatermark")));
+        assertThat(metrics(cache).get("watermark.client.cache.eviction"), is(1L));
+    }
+
+    @Test
+    public void testKey_isStableAndUnambiguous() {
+        assertThat(WatermarkResultCache.key(ENGINE, PROPERTIES), is(WatermarkResultCache.key(ENGINE, PROPERTIES)));
+        assertThat(WatermarkResultCache.key(ENGINE, Arrays.asList("a*b", "c")),
+                not(WatermarkResultCache.key(ENGINE, Arrays.asList("a", "b*c"))));
+        assertThat(WatermarkResultCache.key(ENGINE, Collections.singletonList(null)),
+                not(WatermarkResultCache.key(ENGINE, Collections.singletonList(""))));
+        assertThat(WatermarkResultCache.key("simulated", PROPERTIES),
+                not(WatermarkResultCache.key("stamping", PROPERTIES)));
+    }
+
+    @Test
+    public void testJournal_isLoadedAndCompactedOnStartUp() throws Exception {
+        final File journal = new File(folder.getRoot(), "watermarks.journal");
+        final WatermarkResultCache cache = buildWatermarkResultCache(1, journal.getPath());
+        cache.put(ENGINE, PROPERTIES, "watermark\nwith line break");
+        cache.put(ENGINE, OTHER_PROPERTIES, "otherWatermark");
+        cache.destroy();
+        assertThat(Files.readAllLines(journal.toPath()).size(), is(2));
+
+        final WatermarkResultCache reloadedCache = buildWatermarkResultCache(1, journal.getPath());
+
+        assertThat(reloadedCache.get(ENGINE, OTHER_PROPERTIES), is(Optional.of("otherWatermark")));
+        assertThat(Files.readAllLines(journal.toPath()).size(), is(1));
+        reloadedCache.destroy();
+    }
+
+    @Test
+    public void testJournal_isCompactedWhenItOutgrowsCache() throws Exception {
+        final File journal = new File(folder.getRoot(), "watermarks.journal");
+        final WatermarkResultCache cache = buildWatermarkResultCache(2, journal.getPath());
+        for (int i = 0; i < 10; i++) {
+            cache.put(ENGINE, Arrays.asList("book", "author", "title" + i), "watermark" + i);
+            assertThat(Files.readAllLines(journal.toPath()).size(),
+                    lessThanOrEqualTo(2 * WatermarkResultCache.JOURNAL_COMPACTION_FACTOR));
+        }
+        cache.destroy();
+
+        final WatermarkResultCache reloadedCache = buildWatermarkResultCache(2, journal.getPath());
+
+        assertThat(reloadedCache.get(ENGINE, Arrays.asList("book", "author", "title9")), is(Optional.of("watermark9")));
+        reloadedCache.destroy();
+    }
+
+    private static WatermarkResultCache buildWatermarkResultCache(long maximumSize, String journalFile) {
+        final WatermarkResultCacheProperties properties = new WatermarkResultCacheProperties();
+        properties.setMaximumSize(maximumSize);
+        properties.setJournalFile(journalFile);
+        return new WatermarkResultCache(properties);
+    }
+
+    private static Map<String, Number> metrics(WatermarkResultCache cache) {
+        return cache.metrics().stream().collect(toMap(Metric::getName, Metric::getValue));
+    }
+}
@@ -0,0 +1,84 @@
+package com.yushkevich.watermark.client;
+
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.Metric;
+import rx.Observable;
+import rx.observers.TestSubscriber;
+import rx.subjects.PublishSubject;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.stream.Collectors.toMap;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class WatermarkSingleFlightTest {
+
+    private static final String ENGINE = "simulated";
+    private static final List<String> PROPERTIES = Arrays.asList("book", "author", "title", "Science");
+
+    private final WatermarkSingleFlight singleFlight = new WatermarkSingleFlight();
+
+    @Test
+    public void testGenerate_concurrentGenerationsAreShared() {
+        final PublishSubject<String> generation = PublishSubject.create();
+        final AtomicInteger generations = new AtomicInteger();
+        final TestSubscriber<String> leader = new TestSubscriber<>();
+        final TestSubscriber<String> follower = new TestSubscriber<>();
+
+        singleFlight.generate(ENGINE, PROPERTIES, () -> {
+            generations.incrementAndGet();
+            return generation;
+        }).subscribe(leader);
+        singleFlight.generate(ENGINE, Arrays.asList("book", "author", "title", "Science"), () -> {
+            generations.incrementAndGet();
+            return Observable.just("otherWatermark");
+        }).subscribe(follower);
+        generation.onNext("watermark");
+        generation.onCompleted();
+
+        leader.assertValue("watermark");
+        follower.assertValue("watermark");
+        assertThat(generations.get(), is(1));
+        assertThat(metrics().get("watermark.client.singleFlight.executed"), is(1L));
+        assertThat(metrics().get("watermark.client.singleFlight.shared"), is(1L));
+        assertThat(metrics().get("watermark.client.singleFlight.inFlight"), is(0));
+    }
+
+    @Test
+    public void testGenerate_generationsOfDifferentEnginesAreNotShared() {
+        final PublishSubject<String> generation = PublishSubject.create();
+        final TestSubscriber<String> other = new TestSubscriber<>();
+
+        singleFlight.generate(ENGINE, PROPERTIES, () -> generation).subscribe(new TestSubscriber<>());
+        singleFlight.generate("stamping", PROPERTIES, () -> Observable.just("stamped")).subscribe(other);
+
+        other.assertValue("stamped");
+        assertThat(metrics().get("watermark.client.singleFlight.executed"), is(2L));
+        assertThat(metrics().get("watermark.client.singleFlight.shared"), is(0L));
+    }
+
+    @Test
+    public void testGenerate_sequentialGenerationsAreExecuted() {
+        final TestSubscriber<String> failed = new TestSubscriber<>();
+
+        assertThat(singleFlight.generate(ENGINE, PROPERTIES, () -> Observable.just("watermark")).toBlocking().single(),
+                is("watermark"));
+        singleFlight.generate(ENGINE, PROPERTIES, () -> {
+            throw new IllegalStateException("failure");
+        }).subscribe(failed);
+        assertThat(singleFlight.generate(ENGINE, PROPERTIES, () -> Observable.just("otherWatermark"))
+                .toBlocking().single(), is("otherWatermark"));
+
+        failed.assertError(IllegalStateException.class);
+        assertThat(metrics().get("watermark.client.singleFlight.executed"), is(3L));
+        assertThat(metrics().get("watermark.client.singleFlight.shared"), is(0L));
+    }
+
+    private Map<String, Number> metrics() {
+        return singleFlight.metrics().stream().collect(toMap(Metric::getName, Metric::getValue));
+    }
+}
@@ -0,0 +1,88 @@
+package com.yushkevich.watermark.client.command;
+
+import com.google.common.collect.ImmutableMap;
+import com.yushkevich.watermark.client.WatermarkClient;
+import com.yushkevich.watermark.client.WatermarkClientExecutor;
+import com.yushkevich.watermark.client.engine.WatermarkRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+import static java.util.stream.Collectors.toMap;
+import static com.yushkevich.watermark.client.WatermarkClientExecutorTest.buildWatermarkClientExecutor;
+import static com.yushkevich.watermark.domain.Content.BOOK;
+import static com.yushkevich.watermark.domain.Content.JOURNAL;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WatermarkBatchCommandTest {
+
+    private static final UUID BOOK_ID = UUID.randomUUID();
+    private static final UUID JOURNAL_ID = UUID.randomUUID();
+
+    @Mock
+    private WatermarkClient watermarkClient;
+    private final WatermarkClientExecutor watermarkClientExecutor = buildWatermarkClientExecutor();
+
+    private WatermarkBatchCommand watermarkBatchCommand;
+
+    @Before
+    public void setUp() {
+        watermarkBatchCommand = new WatermarkBatchCommand("WatermarkGroupTest", 1000, "testWatermarkBatch",
+                ImmutableMap.of(BOOK_ID, new WatermarkRequest(1L, BOOK, Arrays.asList("A", "B", "C", "D")),
+                        JOURNAL_ID, new WatermarkRequest(2L, JOURNAL, Arrays.asList("A", "B", "C"))),
+                watermarkClient, watermarkClientExecutor);
+    }
+
+    @Test
+    public void testWatermarkDocuments_success() throws Exception {
+        delayWatermarkClient(500L, false);
+
+        final Map<UUID, String> watermarks = watermarkBatchCommand.observe()
+                .toMap(Map.Entry::getKey, Map.Entry::getValue)
+                .toBlocking().toFuture().get();
+
+        assertThat(watermarks, is(ImmutableMap.of(BOOK_ID, "watermarkTest", JOURNAL_ID, "watermarkTest")));
+    }
+
+    @Test
+    public void testWatermarkDocuments_clientTimeOut() throws Exception {
+        delayWatermarkClient(1500L, false);
+
+        final Map<UUID, String> watermarks = watermarkBatchCommand.observe()
+                .toMap(Map.Entry::getKey, Map.Entry::getValue)
+                .toBlocking().toFuture().get();
+
+        assertThat(watermarks, is(ImmutableMap.of(BOOK_ID, "", JOURNAL_ID, "")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void delayWatermarkClient(long timeout, boolean isFailed) {
+        doAnswer(invocation -> {
+            Thread.sleep(timeout);
+            if (isFailed) {
+                throw new RuntimeException("Watermark client failed");
+            }
+            return ((Map<UUID, WatermarkRequest>) invocation.getArguments()[0]).keySet().stream()
+                    .collect(toMap(id -> id, id -> "watermarkTest"));
+        }).when(watermarkClient).createWatermarks(any());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        reset(watermarkClient);
+        watermarkClientExecutor.destroy();
+        Thread.sleep(1000L);
+    }
+}
@@ -0,0 +1,96 @@
+package com.yushkevich.watermark.client.command;
+
+import com.yushkevich.watermark.client.WatermarkClient;
+import com.yushkevich.watermark.client.WatermarkClientExecutor;
+import com.yushkevich.watermark.client.engine.WatermarkRequest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import rx.Observable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static com.yushkevich.watermark.client.WatermarkClientExecutorTest.buildWatermarkClientExecutor;
+import static com.yushkevich.watermark.domain.Content.JOURNAL;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WatermarkCollapserTest {
+
+    @Mock
+    private WatermarkClient watermarkClient;
+    private final WatermarkClientExecutor watermarkClientExecutor = buildWatermarkClientExecutor();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWatermarkDocuments_collapsedInOneBatch() throws Exception {
+        delayWatermarkClient(500L, false);
+        final UUID id1 = UUID.randomUUID();
+        final UUID id2 = UUID.randomUUID();
+        final UUID id3 = UUID.randomUUID();
+
+        final List<String> watermarkProperties = Observable.merge(
+                buildCollapser("WatermarkCollapserBatchTest", id1, "A").observe(),
+                buildCollapser("WatermarkCollapserBatchTest", id2, "B").observe(),
+                buildCollapser("WatermarkCollapserBatchTest", id3, "C").observe())
+                .toList()
+                .toBlocking().toFuture().get();
+
+        assertThat(watermarkProperties.size(), is(3));
+        assertThat(watermarkProperties.containsAll(Arrays.asList(id1 + "-A", id2 + "-B", id3 + "-C")), is(true));
+        verify(watermarkClient, times(1)).createWatermarks(any());
+    }
+
+    @Test
+    public void testWatermarkDocuments_clientException() throws Exception {
+        delayWatermarkClient(500L, true);
+
+        final String watermarkProperty = buildCollapser("WatermarkCollapserExceptionTest", UUID.randomUUID(), "A").observe()
+                .toBlocking().toFuture().get();
+
+        assertThat(watermarkProperty, is(""));
+    }
+
+    private WatermarkCollapser buildCollapser(String collapserKey, UUID watermarkId, String property) {
+        return WatermarkCollapser.builder()
+                .collapserKey(collapserKey)
+                .groupKey("WatermarkGroupTest")
+                .timeout(1000)
+                .timerDelay(100)
+                .maxRequestsInBatch(10)
+                .watermarkId(watermarkId)
+                .watermarkRequest(new WatermarkRequest(1L, JOURNAL, Arrays.asList(property)))
+                .watermarkEngine(watermarkClient)
+                .watermarkClientExecutor(watermarkClientExecutor)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void delayWatermarkClient(long timeout, boolean isFailed) {
+        doAnswer(invocation -> {
+            Thread.sleep(timeout);
+            if (isFailed) {
+                throw new RuntimeException("Watermark client failed");
+            }
+            final Map<UUID, WatermarkRequest> request = (Map<UUID, WatermarkRequest>) invocation.getArguments()[0];
+            return request.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
+                    e -> e.getKey() + "-" + e.getValue().getWatermarkProperties().get(0)));
+        }).when(watermarkClient).createWatermarks(any());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        reset(watermarkClient);
+        watermarkClientExecutor.destroy();
+        Thread.sleep(1000L);
+    }
+}
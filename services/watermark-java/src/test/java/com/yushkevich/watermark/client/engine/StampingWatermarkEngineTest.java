@@ -0,0 +1,114 @@
+package com.yushkevich.watermark.client.engine;
+
+import com.yushkevich.watermark.document.DocumentStore;
+import com.yushkevich.watermark.document.DocumentStoreProperties;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.yushkevich.watermark.domain.Content.BOOK;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toMap;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class StampingWatermarkEngineTest {
+
+    private static final WatermarkRequest REQUEST = new WatermarkRequest(1L, BOOK,
+            Arrays.asList("book", "Bruce Wayne", "The Dark Code", "Science"));
+    private static final String WATERMARK = "---*book*Bruce Wayne*The Dark Code*Science*---";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DocumentStore documentStore;
+    private StampingWatermarkEngine engine;
+
+    @Before
+    public void setUp() throws Exception {
+        final DocumentStoreProperties properties = new DocumentStoreProperties();
+        properties.setDirectory(folder.getRoot().getPath());
+        documentStore = new DocumentStore(properties);
+        engine = new StampingWatermarkEngine(documentStore);
+    }
+
+    @Test
+    public void testCreateWatermark_documentIsStamped() throws Exception {
+        final String document = "%PDF-1.4\nÜnïcödé content\n%%EOF";
+        documentStore.store(1L, Channels.newChannel(new ByteArrayInputStream(document.getBytes(UTF_8))));
+
+        assertThat(engine.createWatermark(REQUEST), is(WATERMARK));
+
+        final String stamp = "%Watermark: " + WATERMARK + "\n";
+        assertThat(readWatermarked(1L), is(stamp + document + "\n" + stamp));
+        assertThat(metrics().get("watermark.engine.stamping.documents"), is(1L));
+        assertThat(metrics().get("watermark.engine.stamping.bytes"),
+                is((long) (stamp + document + "\n" + stamp).getBytes(UTF_8).length));
+        assertFalse(engine.isCacheable());
+    }
+
+    @Test
+    public void testCreateWatermark_withoutDocument() throws Exception {
+        assertThat(engine.createWatermark(REQUEST), is(WATERMARK));
+
+        assertFalse(documentStore.openWatermarked(1L).isPresent());
+        assertThat(metrics().get("watermark.engine.stamping.skipped"), is(1L));
+    }
+
+    @Test
+    public void testCreateWatermarks_failedDocumentDoesNotFailBatch() throws Exception {
+        documentStore.store(1L, Channels.newChannel(new ByteArrayInputStream("good".getBytes(UTF_8))));
+        documentStore.store(2L, Channels.newChannel(new ByteArrayInputStream("bad".getBytes(UTF_8))));
+        // watermarked copy can't replace non empty directory
+        assertTrue(new File(folder.newFolder("2.watermarked"), "blocker").createNewFile());
+        final Map<UUID, WatermarkRequest> requests = new LinkedHashMap<>();
+        final UUID goodId = UUID.randomUUID();
+        final UUID badId = UUID.randomUUID();
+        requests.put(goodId, REQUEST);
+        requests.put(badId, new WatermarkRequest(2L, BOOK, REQUEST.getWatermarkProperties()));
+
+        final Map<UUID, String> watermarks = engine.createWatermarks(requests);
+
+        assertThat(watermarks.get(goodId), is(WATERMARK));
+        assertThat(watermarks.get(badId), is(""));
+        assertThat(metrics().get("watermark.engine.stamping.documents"), is(1L));
+        assertThat(metrics().get("watermark.engine.stamping.failed"), is(1L));
+    }
+
+    @Test
+    public void testStoreDocument_previousWatermarkedCopyIsRemoved() throws Exception {
+        documentStore.store(1L, Channels.newChannel(new ByteArrayInputStream("first".getBytes(UTF_8))));
+        engine.createWatermark(REQUEST);
+
+        documentStore.store(1L, Channels.newChannel(new ByteArrayInputStream("second".getBytes(UTF_8))));
+
+        assertFalse(documentStore.openWatermarked(1L).isPresent());
+        assertThat(folder.getRoot().list(), is(new String[]{"1"}));
+    }
+
+    private String readWatermarked(Long publicationId) throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (FileChannel document = documentStore.openWatermarked(publicationId).get()) {
+            DocumentStore.transfer(document, Channels.newChannel(output));
+        }
+        return new String(output.toByteArray(), UTF_8);
+    }
+
+    private Map<String, Number> metrics() {
+        return engine.metrics().stream().collect(toMap(Metric::getName, Metric::getValue));
+    }
+}
@@ -0,0 +1,43 @@
+package com.yushkevich.watermark.client.engine;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static com.yushkevich.watermark.domain.Content.BOOK;
+import static com.yushkevich.watermark.domain.Content.JOURNAL;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class WatermarkEnginesTest {
+
+    private final WatermarkEngine simulated = request -> "simulated";
+    private final WatermarkEngine stamping = request -> "stamping";
+    private final Map<String, WatermarkEngine> engines = ImmutableMap.of("simulated", simulated, "stamping", stamping);
+
+    @Test
+    public void testGet_contentOverridesDefaultEngine() {
+        final WatermarkEngines watermarkEngines = new WatermarkEngines(engines,
+                buildProperties("simulated", Collections.singletonMap("book", "stamping")));
+
+        assertThat(watermarkEngines.get(BOOK), is(sameInstance(stamping)));
+        assertThat(watermarkEngines.get(JOURNAL), is(sameInstance(simulated)));
+        assertThat(watermarkEngines.getName(BOOK), is("stamping"));
+        assertThat(watermarkEngines.getName(JOURNAL), is("simulated"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCreate_unknownEngine() {
+        new WatermarkEngines(engines, buildProperties("simulated", Collections.singletonMap("journal", "pdf")));
+    }
+
+    private static WatermarkEngineProperties buildProperties(String name, Map<String, String> content) {
+        final WatermarkEngineProperties properties = new WatermarkEngineProperties();
+        properties.setName(name);
+        properties.setContent(content);
+        return properties;
+    }
+}
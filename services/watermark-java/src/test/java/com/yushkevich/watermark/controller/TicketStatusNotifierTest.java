@@ -0,0 +1,109 @@
+package com.yushkevich.watermark.controller;
+
+import com.yushkevich.watermark.dto.TicketDTO;
+import com.yushkevich.watermark.event.WatermarkStatusChangedEvent;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import rx.subjects.PublishSubject;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import java.util.UUID;
+
+import static com.yushkevich.watermark.domain.Watermark.Status.FAILED;
+import static com.yushkevich.watermark.domain.Watermark.Status.PENDING;
+import static com.yushkevich.watermark.domain.Watermark.Status.SUCCESS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+
+public class TicketStatusNotifierTest {
+
+    private static final UUID TICKET_ID = UUID.randomUUID();
+
+    private final TicketStatusNotifier ticketStatusNotifier = new TicketStatusNotifier();
+
+    @Test
+    public void testAwaitStatusChange_completedOnlyByOtherStatus() {
+        final PublishSubject<TicketDTO> currentTicket = PublishSubject.create();
+        final DeferredResult<ResponseEntity<TicketDTO>> deferredResult =
+                ticketStatusNotifier.awaitStatusChange(TICKET_ID, PENDING, currentTicket);
+
+        currentTicket.onNext(new TicketDTO(TICKET_ID, PENDING, null));
+        ticketStatusNotifier.onStatusChanged(new WatermarkStatusChangedEvent(TICKET_ID,
+                new TicketDTO(TICKET_ID, PENDING, null)));
+        assertFalse(deferredResult.hasResult());
+
+        ticketStatusNotifier.onStatusChanged(new WatermarkStatusChangedEvent(TICKET_ID,
+                new TicketDTO(TICKET_ID, SUCCESS, null)));
+        assertThat(((ResponseEntity<TicketDTO>) deferredResult.getResult()).getBody().getStatus(), is(SUCCESS));
+    }
+
+    @Test
+    public void testAwaitStatusChange_currentTicketReadBeforeChangeIsDropped() {
+        final PublishSubject<TicketDTO> currentTicket = PublishSubject.create();
+        final DeferredResult<ResponseEntity<TicketDTO>> deferredResult =
+                ticketStatusNotifier.awaitStatusChange(TICKET_ID, SUCCESS, currentTicket);
+
+        // current ticket (FAILED) is read before repeated watermarking has finished with SUCCESS again
+        ticketStatusNotifier.onStatusChanged(new WatermarkStatusChangedEvent(TICKET_ID,
+                new TicketDTO(TICKET_ID, SUCCESS, null)));
+        currentTicket.onNext(new TicketDTO(TICKET_ID, FAILED, null));
+
+        assertFalse(deferredResult.hasResult());
+    }
+
+    @Test
+    public void testAwaitStatusChange_timeoutWithLastKnownTicket() throws Exception {
+        final PublishSubject<TicketDTO> currentTicket = PublishSubject.create();
+        final DeferredResult<ResponseEntity<TicketDTO>> deferredResult =
+                ticketStatusNotifier.awaitStatusChange(TICKET_ID, PENDING, currentTicket);
+
+        currentTicket.onNext(new TicketDTO(TICKET_ID, PENDING, null));
+        timeout(deferredResult);
+
+        final ResponseEntity<TicketDTO> response = (ResponseEntity<TicketDTO>) deferredResult.getResult();
+        assertThat(response.getStatusCode(), is(HttpStatus.OK));
+        assertThat(response.getBody().getStatus(), is(PENDING));
+    }
+
+    @Test
+    public void testAwaitStatusChange_timeoutBeforeCurrentTicketIsRead() throws Exception {
+        final PublishSubject<TicketDTO> currentTicket = PublishSubject.create();
+        final DeferredResult<ResponseEntity<TicketDTO>> deferredResult =
+                ticketStatusNotifier.awaitStatusChange(TICKET_ID, PENDING, currentTicket);
+
+        timeout(deferredResult);
+
+        final ResponseEntity<TicketDTO> response = (ResponseEntity<TicketDTO>) deferredResult.getResult();
+        assertThat(response.getStatusCode(), is(HttpStatus.NOT_MODIFIED));
+        assertThat(response.getBody(), nullValue());
+    }
+
+    /**
+     * Starts async processing of deferred result as MVC does and times it out as servlet container does.
+     */
+    private static void timeout(DeferredResult<?> deferredResult) throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        request.setAsyncSupported(true);
+
+        final WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, response));
+        asyncManager.startDeferredResultProcessing(deferredResult);
+
+        final MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.yushkevich.watermark.exporter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.yushkevich.watermark.dto.PublicationExportDTO;
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static com.yushkevich.watermark.domain.Book.Topic.SCIENCE;
+import static com.yushkevich.watermark.domain.Content.BOOK;
+import static com.yushkevich.watermark.domain.Content.JOURNAL;
+import static com.yushkevich.watermark.domain.Watermark.Status.SUCCESS;
+import static com.yushkevich.watermark.exporter.PublicationExportFormat.CSV;
+import static com.yushkevich.watermark.exporter.PublicationExportFormat.NDJSON;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class PublicationExportFormatTest {
+
+    private static final PublicationExportDTO BOOK_PUBLICATION =
+            new PublicationExportDTO(1L, BOOK, "bookTitle", "bookAuthor", SCIENCE, "watermark", SUCCESS);
+    private static final PublicationExportDTO JOURNAL_PUBLICATION =
+            new PublicationExportDTO(2L, JOURNAL, "Title, with \"quotes\"", "journalAuthor", null, null, null);
+
+    private final ObjectWriter objectWriter = new ObjectMapper().writer()
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    @Test
+    public void testWriteNdjson() throws Exception {
+        final StringWriter writer = new StringWriter();
+        NDJSON.writeHeader(writer);
+        NDJSON.write(writer, BOOK_PUBLICATION, objectWriter);
+        NDJSON.write(writer, JOURNAL_PUBLICATION, objectWriter);
+
+        assertThat(writer.toString(), is(
+                "{\"id\":1,\"content\":\"BOOK\",\"title\":\"bookTitle\",\"author\":\"bookAuthor\"," +
+                        "\"topic\":\"SCIENCE\",\"watermark\":\"watermark\",\"status\":\"SUCCESS\"}\n" +
+                        "{\"id\":2,\"content\":\"JOURNAL\",\"title\":\"Title, with \\\"quotes\\\"\"," +
+                        "\"author\":\"journalAuthor\"}\n"));
+    }
+
+    @Test
+    public void testWriteCsv() throws Exception {
+        final StringWriter writer = new StringWriter();
+        CSV.writeHeader(writer);
+        CSV.write(writer, BOOK_PUBLICATION, objectWriter);
+        CSV.write(writer, JOURNAL_PUBLICATION, objectWriter);
+
+        assertThat(writer.toString(), is(PublicationExportFormat.CSV_HEADER + "\n" +
+                "1,BOOK,bookTitle,bookAuthor,SCIENCE,watermark,SUCCESS\n" +
+                "2,JOURNAL,\"Title, with \"\"quotes\"\"\",journalAuthor,,,\n"));
+    }
+}
@@ -0,0 +1,119 @@
+package com.yushkevich.watermark.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yushkevich.watermark.dto.PublicationDTO;
+import com.yushkevich.watermark.dto.PublicationExportDTO;
+import com.yushkevich.watermark.exporter.PublicationExportFormat;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.yushkevich.watermark.domain.Book.Topic.SCIENCE;
+import static com.yushkevich.watermark.domain.Content.BOOK;
+import static com.yushkevich.watermark.domain.Content.JOURNAL;
+import static com.yushkevich.watermark.domain.Watermark.Status.SUCCESS;
+import static com.yushkevich.watermark.importer.PublicationRecordFormat.CSV;
+import static com.yushkevich.watermark.importer.PublicationRecordFormat.CSV_COLUMNS;
+import static com.yushkevich.watermark.importer.PublicationRecordFormat.NDJSON;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+public class PublicationRecordFormatTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testParseNdjson() throws Exception {
+        final PublicationDTO book = NDJSON.parse(
+                "{\"content\":\"BOOK\",\"title\":\"bookTitle\",\"author\":\"bookAuthor\",\"topic\":\"SCIENCE\"}",
+                CSV_COLUMNS, objectMapper);
+
+        assertThat(book, is(new PublicationDTO(null, BOOK, "bookTitle", "bookAuthor", SCIENCE)));
+        assertNull(NDJSON.parseHeader(PublicationRecordFormat.CSV_HEADER));
+    }
+
+    @Test
+    public void testParseCsv() throws Exception {
+        assertThat(CSV.parseHeader("Content,Title,Author,Topic "), is(CSV_COLUMNS));
+        assertNull(CSV.parseHeader("BOOK,bookTitle,bookAuthor,SCIENCE"));
+        assertThat(CSV.parse("BOOK,bookTitle,bookAuthor,SCIENCE", CSV_COLUMNS, objectMapper),
+                is(new PublicationDTO(null, BOOK, "bookTitle", "bookAuthor", SCIENCE)));
+        assertThat(CSV.parse("JOURNAL,\"Title, with \"\"quotes\"\"\",journalAuthor", CSV_COLUMNS, objectMapper),
+                is(new PublicationDTO(null, JOURNAL, "Title, with \"quotes\"", "journalAuthor", null)));
+        assertThat(CSV.parse("JOURNAL,,journalAuthor,", CSV_COLUMNS, objectMapper),
+                is(new PublicationDTO(null, JOURNAL, null, "journalAuthor", null)));
+    }
+
+    @Test
+    public void testParseCsv_columnsOfHeader() throws Exception {
+        final List<String> columns = CSV.parseHeader("author,title,content");
+
+        assertThat(CSV.parse("bookAuthor,bookTitle,BOOK", columns, objectMapper),
+                is(new PublicationDTO(null, BOOK, "bookTitle", "bookAuthor", null)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseCsv_fail_wrongNumberOfValues() throws Exception {
+        CSV.parse("BOOK,bookTitle", CSV_COLUMNS, objectMapper);
+    }
+
+    @Test
+    public void testParseCsv_exportedRecords() throws Exception {
+        final StringWriter exported = new StringWriter();
+        PublicationExportFormat.CSV.writeHeader(exported);
+        PublicationExportFormat.CSV.write(exported, new PublicationExportDTO(1L, BOOK, "Multi-line\ntitle, \"quoted\"",
+                "bookAuthor", SCIENCE, "watermark", SUCCESS), null);
+        PublicationExportFormat.CSV.write(exported, new PublicationExportDTO(2L, JOURNAL, "journalTitle",
+                "journalAuthor", null, null, null), null);
+        final BufferedReader reader = new BufferedReader(new StringReader(exported.toString()));
+
+        final List<String> columns = CSV.parseHeader(CSV.readRecord(reader));
+        assertThat(CSV.parse(CSV.readRecord(reader), columns, objectMapper),
+                is(new PublicationDTO(null, BOOK, "Multi-line\ntitle, \"quoted\"", "bookAuthor", SCIENCE)));
+        assertThat(CSV.parse(CSV.readRecord(reader), columns, objectMapper),
+                is(new PublicationDTO(null, JOURNAL, "journalTitle", "journalAuthor", null)));
+    }
+
+    @Test
+    public void testReadCsvRecord_exportedValuesWithLineBreaks() throws Exception {
+        final StringWriter exported = new StringWriter();
+        PublicationExportFormat.CSV.writeHeader(exported);
+        PublicationExportFormat.CSV.write(exported, new PublicationExportDTO(1L, BOOK, "Multi-line\ntitle, \"quoted\"",
+                "bookAuthor", SCIENCE, "water\r\nmark", SUCCESS), null);
+        PublicationExportFormat.CSV.write(exported, new PublicationExportDTO(2L, JOURNAL, "journalTitle",
+                "journalAuthor", null, null, null), null);
+        final BufferedReader reader = new BufferedReader(new StringReader(exported.toString()));
+
+        assertThat(CSV.readRecord(reader), is(PublicationExportFormat.CSV_HEADER));
+        assertThat(PublicationRecordFormat.split(CSV.readRecord(reader)), is(Arrays.asList("1", "BOOK",
+                "Multi-line\ntitle, \"quoted\"", "bookAuthor", "SCIENCE", "water\nmark", "SUCCESS")));
+        assertThat(PublicationRecordFormat.split(CSV.readRecord(reader)),
+                is(Arrays.asList("2", "JOURNAL", "journalTitle", "journalAuthor", "", "", "")));
+        assertNull(CSV.readRecord(reader));
+    }
+
+    @Test
+    public void testReadRecord_notTerminatedQuoteIsBounded() throws Exception {
+        final StringBuilder input = new StringBuilder("JOURNAL,\"title,author\n");
+        for (int i = 0; i < PublicationRecordFormat.MAX_LINES_PER_RECORD; i++) {
+            input.append("JOURNAL,title,author\n");
+        }
+        final BufferedReader reader = new BufferedReader(new StringReader(input.toString()));
+
+        assertThat(CSV.readRecord(reader).split("\n").length, is(PublicationRecordFormat.MAX_LINES_PER_RECORD));
+        assertThat(CSV.readRecord(reader), is("JOURNAL,title,author"));
+        // odd number of quotes, but NDJSON record is always one line
+        assertThat(NDJSON.readRecord(new BufferedReader(new StringReader("{\"title\":\"\\\"\"}\n{}"))),
+                is("{\"title\":\"\\\"\"}"));
+    }
+
+    @Test
+    public void testSplitCsv() {
+        assertThat(PublicationRecordFormat.split(" a , \"b,c\" ,"), is(Arrays.asList("a", "b,c", "")));
+    }
+}
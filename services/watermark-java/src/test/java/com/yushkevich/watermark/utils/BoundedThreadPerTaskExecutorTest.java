@@ -0,0 +1,94 @@
+package com.yushkevich.watermark.utils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BoundedThreadPerTaskExecutorTest {
+
+    // stands in for virtual thread per task executor (Java 21+)
+    private final ExecutorService threadPerTaskExecutor = Executors.newCachedThreadPool();
+    private final BoundedThreadPerTaskExecutor executor = new BoundedThreadPerTaskExecutor(threadPerTaskExecutor, 1, 1);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testExecute_boundsRunningAndWaitingTasks() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch executed = new CountDownLatch(2);
+
+        executor.execute(() -> {
+            started.countDown();
+            awaitUninterruptibly(blocked);
+            executed.countDown();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(executed::countDown);
+        waitForWaitingTask();
+        try {
+            executor.execute(executed::countDown);
+            fail("Should reject task above running and waiting limits");
+        } catch (RejectedExecutionException ignored) {
+        }
+
+        assertThat(executor.getActiveCount(), is(1));
+        assertThat(executor.getRemainingWaitingCapacity(), is(0));
+        blocked.countDown();
+        assertTrue(executed.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertThat(executor.getCompletedTaskCount(), is(2L));
+        assertThat(executor.getActiveCount(), is(0));
+        assertThat(executor.getWaitingCount(), is(0));
+    }
+
+    @Test
+    public void testSubmit_cancelledWaitingTaskReleasesPermits() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+
+        executor.execute(() -> {
+            started.countDown();
+            awaitUninterruptibly(blocked);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        final Future<?> waiting = executor.submit(() -> fail("Cancelled task should not run"));
+        waitForWaitingTask();
+        waiting.cancel(true);
+        blocked.countDown();
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertThat(executor.getActiveCount(), is(0));
+        assertThat(executor.getRemainingWaitingCapacity(), is(1));
+    }
+
+    private void waitForWaitingTask() throws InterruptedException {
+        while (executor.getWaitingCount() == 0) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.yushkevich.watermark.utils;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+public class VirtualThreadsTest {
+
+    @Test
+    public void testPlatformThreadFactory() throws Exception {
+        final Thread thread = VirtualThreads.threadFactory("test-", false).newThread(() -> {
+        });
+
+        assertThat(thread.getName(), is("test-0"));
+        assertTrue(thread.isDaemon());
+    }
+
+    @Test
+    public void testVirtualThreadExecutor() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+        final ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-");
+        final CountDownLatch executed = new CountDownLatch(2);
+
+        executor.execute(executed::countDown);
+        executor.execute(executed::countDown);
+
+        assertTrue(executed.await(5, TimeUnit.SECONDS));
+        final Thread thread = VirtualThreads.threadFactory("test-", true).newThread(() -> {
+        });
+        assertThat(Thread.class.getMethod("isVirtual").invoke(thread), is(true));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testVirtualThreadsAreNotSupported() throws Exception {
+        assumeTrue(!VirtualThreads.isSupported());
+
+        try {
+            final ThreadFactory threadFactory = VirtualThreads.threadFactory("test-", true);
+            fail("Should throw exception, but created " + threadFactory);
+        } catch (IllegalStateException ignored) {
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.yushkevich.watermark.utils;
+
+import com.yushkevich.watermark.domain.Book;
+import com.yushkevich.watermark.domain.Journal;
+import com.yushkevich.watermark.domain.Publication;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static com.yushkevich.watermark.domain.Book.Topic.SCIENCE;
+import static com.yushkevich.watermark.utils.WatermarkGenerator.appendWatermark;
+import static com.yushkevich.watermark.utils.WatermarkGenerator.encodeWatermark;
+import static com.yushkevich.watermark.utils.WatermarkGenerator.generateWatermark;
+import static com.yushkevich.watermark.utils.WatermarkGenerator.watermarkLength;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+public class WatermarkGeneratorTest {
+
+    private final Book book = new Book("The Dark Code", "Bruce Wayne", SCIENCE);
+    private final Journal journal = new Journal("Journal of human flight routes", null);
+
+    @Test
+    public void testGenerateWatermark() {
+        assertThat(generateWatermark(book.getWatermarkProperties()), is("---*book*Bruce Wayne*The Dark Code*Science*---"));
+        assertThat(generateWatermark(journal.getWatermarkProperties()), is("---*journal*null*Journal of human flight routes*---"));
+        assertThat(watermarkLength(journal.getWatermarkProperties()),
+                is(generateWatermark(journal.getWatermarkProperties()).length()));
+    }
+
+    @Test
+    public void testAppendWatermark_sameAsGenerated() {
+        for (Publication publication : Arrays.asList(book, journal)) {
+            final StringBuilder watermark = new StringBuilder("prefix");
+            appendWatermark(watermark, publication.getWatermarkProperties());
+            assertThat(watermark.toString(), is("prefix" + generateWatermark(publication.getWatermarkProperties())));
+            assertThat(generateWatermark(publication), is(generateWatermark(publication.getWatermarkProperties())));
+        }
+    }
+
+    @Test
+    public void testEncodeWatermark_sameAsStringBytes() {
+        for (String watermark : Arrays.asList("", "---*book*", "Ünïcödé €uro", "📚 books", "broken \uD83D", "\uDCDA")) {
+            assertArrayEquals(watermark, watermark.getBytes(UTF_8), encodeWatermark(watermark));
+        }
+    }
+
+    @Test
+    public void testAppendAndEncodeWatermark_reusedBuffers() {
+        final StringBuilder watermark = new StringBuilder(256);
+        final ByteBuffer bytes = ByteBuffer.allocate(1024);
+
+        for (Publication publication : Arrays.asList(book, journal, book)) {
+            watermark.setLength(0);
+            bytes.clear();
+            final int length = encodeWatermark(appendWatermark(watermark, publication.getWatermarkProperties()), bytes);
+
+            final byte[] encoded = new byte[length];
+            ((ByteBuffer) bytes.flip()).get(encoded);
+            assertArrayEquals(generateWatermark(publication).getBytes(UTF_8), encoded);
+        }
+    }
+}
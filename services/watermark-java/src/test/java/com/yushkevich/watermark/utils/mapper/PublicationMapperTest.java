@@ -0,0 +1,70 @@
+package com.yushkevich.watermark.utils.mapper;
+
+import com.yushkevich.watermark.domain.Book;
+import com.yushkevich.watermark.domain.Journal;
+import com.yushkevich.watermark.domain.Publication;
+import com.yushkevich.watermark.domain.Watermark;
+import com.yushkevich.watermark.dto.PublicationDTO;
+import com.yushkevich.watermark.dto.TicketDTO;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static com.yushkevich.watermark.domain.Book.Topic.MEDIA;
+import static com.yushkevich.watermark.domain.Book.Topic.SCIENCE;
+import static com.yushkevich.watermark.domain.Content.BOOK;
+import static com.yushkevich.watermark.domain.Content.JOURNAL;
+import static com.yushkevich.watermark.domain.Watermark.Status.PENDING;
+import static com.yushkevich.watermark.domain.Watermark.Status.SUCCESS;
+import static com.yushkevich.watermark.utils.mapper.PublicationMapper.*;
+import static com.yushkevich.watermark.utils.mapper.WatermarkMapper.buildTicketDTO;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class PublicationMapperTest {
+
+    @Test
+    public void testBuildPublicationAndBack() {
+        final PublicationDTO bookDTO = new PublicationDTO(1L, BOOK, "bookTitle", "bookAuthor", SCIENCE);
+        final PublicationDTO journalDTO = new PublicationDTO(2L, JOURNAL, "journalTitle", "journalAuthor", null);
+
+        final Publication book = buildPublication(bookDTO);
+        final Publication journal = buildPublication(journalDTO);
+
+        assertThat(book, instanceOf(Book.class));
+        assertThat(journal, instanceOf(Journal.class));
+        assertThat(buildPublicationDTO(book), is(bookDTO));
+        assertThat(buildPublicationDTO(journal), is(journalDTO));
+    }
+
+    @Test
+    public void testPatchPublication_onlyNonNullProperties() {
+        final Publication target = buildPublication(new PublicationDTO(1L, BOOK, "bookTitle", "bookAuthor", SCIENCE));
+
+        patchPublication(buildPublication(PublicationDTO.builder().id(1L).content(BOOK).author("newAuthor").build()), target);
+        assertThat(buildPublicationDTO(target), is(new PublicationDTO(1L, BOOK, "bookTitle", "newAuthor", SCIENCE)));
+
+        patchPublication(buildPublication(PublicationDTO.builder().id(1L).content(BOOK).topic(MEDIA).build()), target);
+        assertThat(buildPublicationDTO(target), is(new PublicationDTO(1L, BOOK, "bookTitle", "newAuthor", MEDIA)));
+    }
+
+    @Test
+    public void testBuildTicketDTO_documentOnlyForSuccess() {
+        final Publication book = buildPublication(new PublicationDTO(1L, BOOK, "bookTitle", "bookAuthor", SCIENCE));
+        final Watermark watermark = Watermark.builder()
+                .id(UUID.randomUUID())
+                .publication(book)
+                .status(PENDING.getName())
+                .build();
+
+        final TicketDTO pendingTicket = buildTicketDTO(watermark);
+        assertThat(pendingTicket.getId(), is(watermark.getId()));
+        assertThat(pendingTicket.getStatus(), is(PENDING));
+        assertThat(pendingTicket.getDocument(), nullValue());
+
+        watermark.setStatus(SUCCESS.getName());
+        assertThat(buildTicketDTO(watermark).getDocument(), is(buildPublicationDTO(book)));
+    }
+}